@@ -3,7 +3,8 @@ CREATE TABLE lookup (
     archival_id BIGINT NOT NULL AUTO_INCREMENT UNIQUE,
     timestamp DATETIME(6) NOT NULL,
     created_at DATETIME(6) NOT NULL,
-    archived_at DATETIME(6) DEFAULT NULL
+    archived_at DATETIME(6) DEFAULT NULL,
+    INDEX lookup_created_at_idx(created_at)
 );
 
 CREATE TABLE lookup_identifier (
@@ -9,4 +9,6 @@ db.lookup.createIndex(
     }
 )
 
-db.lookup.createIndex({"archivalId": 1}, { unique: true })
\ No newline at end of file
+db.lookup.createIndex({"archivalId": 1}, { unique: true })
+
+db.lookup.createIndex({"createdAt": 1}, { name: 'lookup_created_at' })
@@ -15,3 +15,5 @@ create table public.lookup
 create index identifier_lookup_values
     on public.lookup USING GIN (identifiers);
 
+create index lookup_created_at
+    on public.lookup (created_at);
@@ -5,6 +5,21 @@ docker-compose down
 echo 'Building executable JAR\n'
 ./gradlew clean jmhJar
 
+echo 'Generating dataset\n'
+java -cp build/libs/db-benchmark-1.0-SNAPSHOT-jmh.jar org.example.DatasetSnapshot build/dataset.bin 10000000
+JVM_ARGS="-Dbenchmark.dataset=$PWD/build/dataset.bin -Dbenchmark.growth=true"
+# Ascending and one documentCount for all benchmark methods at a time, so growth mode only ever inserts the missing records.
+# A run over all counts per method would shrink the database at the start of every method, i.e. refill it from scratch.
+DOCUMENT_COUNTS="50 1000 5000 10000 50000 100000 250000 500000 1000000 5000000 10000000"
+
+# Runs all benchmarks of the runner ($1) per documentCount, results go to build/<name>-<documentCount>.csv/.txt ($2)
+run_benchmarks() {
+	for count in $DOCUMENT_COUNTS; do
+		java -jar build/libs/db-benchmark-1.0-SNAPSHOT-jmh.jar "$1" -p documentCount="$count" -jvmArgsAppend "$JVM_ARGS" \
+			-rff "build/$2-$count.csv" -o "build/$2-$count.txt"
+	done
+}
+
 echo '\n\n\n\n\n'
 echo 'Running mongo benchmarks'
 echo '############\n'
@@ -16,7 +31,7 @@ until [ $(docker-compose logs --tail='all' mongo  | grep "Waiting for connection
     sleep 1
 done
 
-java -jar build/libs/db-benchmark-1.0-SNAPSHOT-jmh.jar MongoRunner  -rff "build/mongo.csv" -o "build/mongo.txt"
+run_benchmarks MongoRunner mongo
 
 docker-compose down
 
@@ -31,7 +46,7 @@ until [ $(docker-compose logs --tail='all' mariadb  | grep "ready for connection
     sleep 1
 done
 
-java -jar build/libs/db-benchmark-1.0-SNAPSHOT-jmh.jar MariaRunner  -rff "build/maria.csv" -o "build/maria.txt"
+run_benchmarks MariaRunner maria
 
 docker-compose down
 
@@ -47,10 +62,31 @@ until [ $(docker-compose logs --tail='all' postgres  | grep "database system is
     sleep 1
 done
 
-java -jar build/libs/db-benchmark-1.0-SNAPSHOT-jmh.jar PostgresRunner  -rff "build/postgres.csv" -o "build/postgres.txt"
+run_benchmarks PostgresRunner postgres
 
 docker-compose down
 
+echo '\n\n\n\n\n'
+echo 'Running h2 benchmarks (embedded, no container)'
+echo '############\n'
+
+run_benchmarks H2Runner h2
+
+echo '\n\n\n\n\n'
+echo 'Running off-heap benchmarks (lower bound, no database)'
+echo '############\n'
+
+run_benchmarks OffHeapRunner offheap
+
+echo '\n\n'
+echo 'Analysing results against the previous run'
+echo '############\n'
+
+RUN_DIR="results/$(date +%Y-%m-%d_%H%M)"
+mkdir -p "$RUN_DIR"
+cp build/*.csv build/*.txt "$RUN_DIR"
+./gradlew analyzeResults -Pruns="$(ls -d results/* | tail -2 | paste -sd, -)"
+
 echo '\n\n'
 echo 'Finished, check the following files for results:'
-ls build/*.txt
+ls build/*.txt build/analysis.md
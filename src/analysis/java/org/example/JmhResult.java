@@ -0,0 +1,79 @@
+package org.example;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * One score of a JMH result file: a primary result or a secondary one (aux counters, e.g. {@code benchmarkWrite:rows}).
+ */
+public class JmhResult {
+  private static final Pattern LATENCY_COUNTER = Pattern.compile(":(\\w*[pP]\\d[\\d_]*|\\w*[mM]ax)$");
+
+  /**
+   * Simple name of the benchmark class, e.g. {@code MongoRunner}
+   */
+  public final String runner;
+  /**
+   * Method, with the name of the counter for secondary results, e.g. {@code benchmarkWrite:rows}
+   */
+  public final String benchmark;
+  public final String mode;
+  /**
+   * All params but {@code documentCount}, sorted by name
+   */
+  public final Map<String, String> params;
+  /**
+   * {@code -1} if the benchmark has no such param
+   */
+  public final long documentCount;
+  public final double score;
+  /**
+   * Half of the 99.9% confidence interval, {@code 0} if JMH couldn't compute one (single fork and iteration)
+   */
+  public final double error;
+  public final String unit;
+
+  public JmhResult(String runner, String benchmark, String mode, Map<String, String> params, long documentCount, double score,
+    double error, String unit) {
+    this.runner = runner;
+    this.benchmark = benchmark;
+    this.mode = mode;
+    this.params = params;
+    this.documentCount = documentCount;
+    this.score = score;
+    this.error = Double.isNaN(error) ? 0 : error;
+    this.unit = unit;
+  }
+
+  /**
+   * Identifies the scaling curve the result is one point of
+   */
+  public String series() {
+    return runner + "." + benchmark + " " + mode + (params.isEmpty() ? "" : " " + params);
+  }
+
+  /**
+   * @return {@code 1} if a higher score is better (throughput), {@code -1} if a lower one is (time per operation, latency counters),
+   *   {@code 0} for plain counters like the number of samples
+   */
+  public int betterDirection() {
+    if (unit.startsWith("ops/")) {
+      return 1;
+    }
+    if (unit.endsWith("/op") || LATENCY_COUNTER.matcher(benchmark).find()) {
+      return -1;
+    }
+    return 0;
+  }
+
+  /**
+   * @return The score as cost of an operation, i.e. the inverse of a throughput, or {@code NaN} for plain counters
+   */
+  public double cost() {
+    return switch (betterDirection()) {
+      case 1 -> 1 / score;
+      case -1 -> score;
+      default -> Double.NaN;
+    };
+  }
+}
@@ -0,0 +1,143 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Reads the results of one run: a JMH result file ({@code -rf csv} / {@code -rf json}) or a directory with several of them, e.g.
+ * {@code build/} after {@code run-suite.sh}. Other files of the directory (e.g. {@code stats.csv}) are skipped.
+ */
+public final class JmhResults {
+  private static final String DOCUMENT_COUNT = "documentCount";
+  private static final String PARAM_PREFIX = "Param: ";
+
+  private JmhResults() {
+  }
+
+  public static List<JmhResult> load(Path run) throws IOException {
+    if (!Files.isDirectory(run)) {
+      return loadFile(run);
+    }
+    List<JmhResult> results = new ArrayList<>();
+    try (Stream<Path> files = Files.list(run)) {
+      for (Path file : files.sorted().toList()) {
+        results.addAll(loadFile(file));
+      }
+    }
+    return results;
+  }
+
+  private static List<JmhResult> loadFile(Path file) throws IOException {
+    String name = file.getFileName().toString();
+    if (name.endsWith(".csv")) {
+      return loadCsv(Files.readAllLines(file));
+    }
+    if (name.endsWith(".json")) {
+      return loadJson(new ObjectMapper().readTree(file.toFile()));
+    }
+    return List.of();
+  }
+
+  private static List<JmhResult> loadCsv(List<String> lines) {
+    if (lines.isEmpty() || !lines.get(0).startsWith("\"Benchmark\"")) {
+      return List.of();
+    }
+    List<String> header = splitCsv(lines.get(0));
+    List<JmhResult> results = new ArrayList<>();
+    for (String line : lines.subList(1, lines.size())) {
+      if (line.isBlank()) {
+        continue;
+      }
+      List<String> values = splitCsv(line);
+      Map<String, String> params = new TreeMap<>();
+      for (int i = 0; i < header.size(); ++i) {
+        if (header.get(i).startsWith(PARAM_PREFIX) && !values.get(i).isEmpty()) {
+          params.put(header.get(i).substring(PARAM_PREFIX.length()), values.get(i));
+        }
+      }
+      results.add(result(values.get(0), values.get(1), params, number(values.get(4)), number(values.get(5)), values.get(6)));
+    }
+    return results;
+  }
+
+  private static List<JmhResult> loadJson(JsonNode root) {
+    List<JmhResult> results = new ArrayList<>();
+    if (!root.isArray()) {
+      return results;
+    }
+    for (JsonNode benchmark : root) {
+      if (!benchmark.has("primaryMetric")) {
+        continue;
+      }
+      Map<String, String> params = new TreeMap<>();
+      benchmark.path("params").fields().forEachRemaining(e -> params.put(e.getKey(), e.getValue().asText()));
+      String name = benchmark.get("benchmark").asText();
+      String mode = benchmark.get("mode").asText();
+      results.add(result(name, mode, params, benchmark.get("primaryMetric")));
+      for (Iterator<Map.Entry<String, JsonNode>> it = benchmark.path("secondaryMetrics").fields(); it.hasNext(); ) {
+        Map.Entry<String, JsonNode> secondary = it.next();
+        results.add(result(name + ":" + secondary.getKey(), mode, params, secondary.getValue()));
+      }
+    }
+    return results;
+  }
+
+  private static JmhResult result(String name, String mode, Map<String, String> params, JsonNode metric) {
+    return result(name, mode, params, metric.path("score").asDouble(Double.NaN), metric.path("scoreError").asDouble(Double.NaN),
+      metric.path("scoreUnit").asText());
+  }
+
+  /**
+   * @param name Fully qualified, e.g. {@code org.example.MongoRunner.benchmarkRead}
+   */
+  private static JmhResult result(String name, String mode, Map<String, String> params, double score, double error, String unit) {
+    int method = name.lastIndexOf('.', name.contains(":") ? name.indexOf(':') : name.length());
+    String className = name.substring(0, method);
+    String runner = className.substring(className.lastIndexOf('.') + 1);
+    Map<String, String> otherParams = new LinkedHashMap<>(params);
+    String documentCount = otherParams.remove(DOCUMENT_COUNT);
+    return new JmhResult(runner, name.substring(method + 1), mode, otherParams, documentCount == null ? -1 : Long.parseLong(documentCount),
+      score, error, unit);
+  }
+
+  /**
+   * JMH writes the numbers with the default locale, i.e. maybe with a decimal comma
+   */
+  private static double number(String value) {
+    return value.isEmpty() ? Double.NaN : Double.parseDouble(value.replace(',', '.'));
+  }
+
+  private static List<String> splitCsv(String line) {
+    List<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); ++i) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          value.append('"');
+          ++i;
+        } else {
+          quoted = !quoted;
+        }
+      } else if (c == ',' && !quoted) {
+        values.add(value.toString());
+        value.setLength(0);
+      } else {
+        value.append(c);
+      }
+    }
+    values.add(value.toString());
+    return values;
+  }
+}
@@ -0,0 +1,185 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Analyses the JMH results of one or more runs (oldest first) and writes a markdown report to stdout and {@code build/analysis.md}:
+ * <ul>
+ *   <li>Scaling: the cost per operation of every benchmark of the last run fitted against {@code documentCount}, a linear growth is a
+ *   scaling defect</li>
+ *   <li>Regressions: the last run against the one before, a change counts if it is beyond the confidence intervals of both and beyond
+ *   the threshold</li>
+ *   <li>Comparison: a table per benchmark of the last run with the runners side by side, like the tables of the README</li>
+ * </ul>
+ *
+ * Usage: {@code ResultAnalysis <run>...}, a run is a JMH result file ({@code csv}/{@code json}) or a directory of them. Configured via
+ * {@code -Danalysis.threshold=0.05} (relative change), {@code -Danalysis.defectGrowth=2} and {@code -Danalysis.output=...}, passed on
+ * by gradle from {@code -Panalysis.*}.
+ */
+public class ResultAnalysis {
+  private static final double THRESHOLD = Double.parseDouble(System.getProperty("analysis.threshold", "0.05"));
+  private static final double DEFECT_GROWTH = Double.parseDouble(System.getProperty("analysis.defectGrowth", "2"));
+  private static final Path OUTPUT = Path.of(System.getProperty("analysis.output", "build/analysis.md"));
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: ResultAnalysis <run>...");
+      System.exit(1);
+    }
+    List<List<JmhResult>> runs = new ArrayList<>();
+    for (String run : args) {
+      List<JmhResult> results = deduplicate(JmhResults.load(Path.of(run)));
+      if (results.isEmpty()) {
+        System.err.println("No JMH results in " + run);
+      }
+      runs.add(results);
+    }
+    var report = new StringBuilder();
+    List<JmhResult> last = runs.get(runs.size() - 1);
+    report.append("# Scaling of ").append(args[args.length - 1]).append("\n\n");
+    scaling(report, last);
+    if (runs.size() > 1) {
+      report.append("\n# Changes from ").append(args[args.length - 2]).append(" to ").append(args[args.length - 1]).append("\n\n");
+      regressions(report, runs.get(runs.size() - 2), last);
+    }
+    report.append("\n# Comparison of ").append(args[args.length - 1]).append("\n");
+    comparison(report, last);
+
+    System.out.print(report);
+    Path parent = OUTPUT.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.writeString(OUTPUT, report);
+  }
+
+  private static void scaling(StringBuilder report, List<JmhResult> results) {
+    Map<String, List<JmhResult>> series = results.stream()
+      .filter(r -> r.documentCount >= 0 && r.betterDirection() != 0 && r.score > 0)
+      .collect(Collectors.groupingBy(JmhResult::series, TreeMap::new, Collectors.toList()));
+    report.append("| Series | Points | Cost | Model | R2 | Growth | |\n");
+    report.append("|---|---|---|---|---|---|---|\n");
+    int skipped = 0;
+    for (Map.Entry<String, List<JmhResult>> entry : series.entrySet()) {
+      List<JmhResult> points = entry.getValue().stream().sorted(Comparator.comparingLong(r -> r.documentCount)).toList();
+      if (points.size() < ScalingFit.MIN_POINTS) {
+        ++skipped;
+        continue;
+      }
+      long[] documentCounts = points.stream().mapToLong(r -> r.documentCount).toArray();
+      double[] costs = points.stream().mapToDouble(JmhResult::cost).toArray();
+      ScalingFit fit = ScalingFit.fit(documentCounts, costs);
+      double growth = costs[costs.length - 1] / costs[0];
+      boolean defect = fit.model == ScalingFit.Model.LINEAR && growth >= DEFECT_GROWTH;
+      report.append(String.format(Locale.ROOT, "| %s | %d..%d | %s -> %s %s | %s | %.3f | %sx | %s |\n",
+        entry.getKey(), documentCounts[0], documentCounts[documentCounts.length - 1], format(costs[0]), format(costs[costs.length - 1]),
+        costUnit(points.get(0)), fit.model, fit.r2, format(growth), defect ? "**scaling defect**" : ""));
+    }
+    if (skipped > 0) {
+      report.append(String.format("\n%d series with less than %d document counts skipped\n", skipped, ScalingFit.MIN_POINTS));
+    }
+  }
+
+  private static void regressions(StringBuilder report, List<JmhResult> baseline, List<JmhResult> candidate) {
+    Map<String, JmhResult> before = new LinkedHashMap<>();
+    baseline.forEach(r -> before.put(key(r), r));
+    report.append("| Series | documentCount | Before | After | Change | |\n");
+    report.append("|---|---|---|---|---|---|\n");
+    int compared = 0;
+    int regressions = 0;
+    int improvements = 0;
+    for (JmhResult after : candidate) {
+      JmhResult previous = before.get(key(after));
+      if (previous == null || after.betterDirection() == 0 || previous.score == 0) {
+        continue;
+      }
+      ++compared;
+      double change = (after.score - previous.score) / previous.score;
+      boolean beyondNoise = Math.abs(after.score - previous.score) > after.error + previous.error && Math.abs(change) > THRESHOLD;
+      if (!beyondNoise) {
+        continue;
+      }
+      boolean worse = after.betterDirection() < 0 ? change > 0 : change < 0;
+      if (worse) {
+        ++regressions;
+      } else {
+        ++improvements;
+      }
+      report.append(String.format(Locale.ROOT, "| %s | %d | %s +- %s | %s +- %s %s | %+.1f%% | %s |\n",
+        after.series(), after.documentCount, format(previous.score), format(previous.error), format(after.score), format(after.error),
+        after.unit, change * 100, worse ? "**regression**" : "improvement"));
+    }
+    report.append(String.format(Locale.ROOT, "\n%d results compared, %d regressions, %d improvements (threshold %.0f%%)\n",
+      compared, regressions, improvements, THRESHOLD * 100));
+  }
+
+  private static void comparison(StringBuilder report, List<JmhResult> results) {
+    Map<String, List<JmhResult>> benchmarks = results.stream()
+      .filter(r -> !r.benchmark.contains(":"))
+      .collect(Collectors.groupingBy(r -> r.benchmark + " " + r.mode, TreeMap::new, Collectors.toList()));
+    for (Map.Entry<String, List<JmhResult>> entry : benchmarks.entrySet()) {
+      List<JmhResult> benchmark = entry.getValue();
+      var columns = new TreeSet<String>();
+      var rows = new TreeSet<Long>();
+      Map<String, JmhResult> cells = new LinkedHashMap<>();
+      for (JmhResult r : benchmark) {
+        columns.add(column(r));
+        rows.add(r.documentCount);
+        cells.put(column(r) + "@" + r.documentCount, r);
+      }
+      report.append("\n## ").append(entry.getKey()).append(" (").append(benchmark.get(0).unit).append(")\n\n");
+      report.append("| documentCount | ").append(String.join(" | ", columns)).append(" |\n");
+      report.append("|---|").append("---|".repeat(columns.size())).append('\n');
+      for (long documentCount : rows) {
+        report.append("| ").append(documentCount < 0 ? "-" : Long.toString(documentCount)).append(" |");
+        for (String column : columns) {
+          JmhResult cell = cells.get(column + "@" + documentCount);
+          report.append(' ').append(cell == null ? "" : format(cell.score)).append(" |");
+        }
+        report.append('\n');
+      }
+    }
+  }
+
+  /**
+   * Several result files of a run might contain the same results (e.g. {@code -rf csv} and {@code -rf json}), the first one wins
+   */
+  private static List<JmhResult> deduplicate(List<JmhResult> results) {
+    Map<String, JmhResult> unique = new LinkedHashMap<>();
+    results.forEach(r -> unique.putIfAbsent(key(r), r));
+    return new ArrayList<>(unique.values());
+  }
+
+  private static String key(JmhResult result) {
+    return result.series() + "@" + result.documentCount;
+  }
+
+  private static String column(JmhResult result) {
+    return result.params.isEmpty() ? result.runner : result.runner + " " + result.params;
+  }
+
+  /**
+   * @see JmhResult#cost()
+   */
+  private static String costUnit(JmhResult result) {
+    return result.betterDirection() > 0 ? result.unit.substring("ops/".length()) + "/op" : result.unit;
+  }
+
+  private static String format(double value) {
+    if (Double.isNaN(value)) {
+      return "-";
+    }
+    return Math.abs(value) >= 100 ? String.format(Locale.ROOT, "%.0f", value) : String.format(Locale.ROOT, "%.4g", value);
+  }
+}
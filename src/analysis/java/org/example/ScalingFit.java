@@ -0,0 +1,91 @@
+package org.example;
+
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * Least-squares fit of the cost of an operation against the number of documents, {@code cost = intercept + slope * f(n)} with
+ * {@code f} of the {@link Model}. The model is chosen by the Bayesian information criterion, i.e. the 2-parameter models have to be
+ * clearly better than {@link Model#CONSTANT} to be chosen.
+ */
+public class ScalingFit {
+  /**
+   * At least that many document counts are needed to tell the models apart
+   */
+  public static final int MIN_POINTS = 3;
+
+  public enum Model {
+    CONSTANT(n -> 0),
+    LOG(n -> Math.log(n)),
+    LINEAR(n -> n);
+
+    private final LongToDoubleFunction f;
+
+    Model(LongToDoubleFunction f) {
+      this.f = f;
+    }
+  }
+
+  public final Model model;
+  public final double intercept;
+  public final double slope;
+  /**
+   * Coefficient of determination, {@code 1} for a perfect fit
+   */
+  public final double r2;
+
+  private final double bic;
+
+  private ScalingFit(Model model, double intercept, double slope, double r2, double bic) {
+    this.model = model;
+    this.intercept = intercept;
+    this.slope = slope;
+    this.r2 = r2;
+    this.bic = bic;
+  }
+
+  /**
+   * @param documentCounts At least {@link #MIN_POINTS} distinct ones
+   */
+  public static ScalingFit fit(long[] documentCounts, double[] costs) {
+    ScalingFit best = null;
+    for (Model model : Model.values()) {
+      ScalingFit fit = fit(model, documentCounts, costs);
+      if (best == null || fit.bic < best.bic) {
+        best = fit;
+      }
+    }
+    return best;
+  }
+
+  private static ScalingFit fit(Model model, long[] documentCounts, double[] costs) {
+    int m = costs.length;
+    double meanX = 0;
+    double meanY = 0;
+    for (int i = 0; i < m; ++i) {
+      meanX += model.f.applyAsDouble(documentCounts[i]) / m;
+      meanY += costs[i] / m;
+    }
+    double sxx = 0;
+    double sxy = 0;
+    double syy = 0;
+    for (int i = 0; i < m; ++i) {
+      double dx = model.f.applyAsDouble(documentCounts[i]) - meanX;
+      sxx += dx * dx;
+      sxy += dx * (costs[i] - meanY);
+      syy += (costs[i] - meanY) * (costs[i] - meanY);
+    }
+    double slope = sxx == 0 ? 0 : sxy / sxx;
+    double intercept = meanY - slope * meanX;
+    double sse = 0;
+    for (int i = 0; i < m; ++i) {
+      double residual = costs[i] - intercept - slope * model.f.applyAsDouble(documentCounts[i]);
+      sse += residual * residual;
+    }
+    int parameters = model == Model.CONSTANT ? 1 : 2;
+    // the floor keeps a perfect fit from winning by -infinity, relative to the scale of the costs
+    double floor = Math.max(syy, meanY * meanY) * 1e-12 + Double.MIN_NORMAL;
+    double bic = m * Math.log(Math.max(sse, floor) / m) + parameters * Math.log(m);
+    double r2 = syy == 0 ? 1 : 1 - sse / syy;
+    return new ScalingFit(model, intercept, slope, r2, bic);
+  }
+}
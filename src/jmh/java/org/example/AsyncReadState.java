@@ -0,0 +1,176 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.SneakyThrows;
+import org.HdrHistogram.Recorder;
+import org.openjdk.jmh.annotations.Param;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads via a non-blocking driver: every one of the {@link #asyncConnections} connections keeps {@link #pipelineDepth} reads in flight,
+ * a completed read immediately issues the next one on the same connection. The results are drained one by one ({@code request(1)}), so
+ * the driver can't push more than is consumed. One benchmark invocation is {@link #READS_PER_SLOT} reads per in-flight slot, the
+ * latency of every single read is published as {@link LatencyCounters}, i.e. as percentiles per iteration in
+ * {@code build/latencies.csv}.
+ *
+ * Every runner with an async driver has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete
+ * runner into the setup methods.
+ *
+ * @param <C> The connection (or client) type of the async driver
+ */
+public abstract class AsyncReadState<C> {
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncReadState.class);
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final int READS_PER_SLOT = 32;
+  private static final long TIMEOUT_SECONDS = 60;
+
+  /**
+   * Reads in flight per connection, 1 is the async equivalent of {@code benchmarkRead}
+   */
+  @Param({"1", "8", "32", "128"})
+  public int pipelineDepth;
+
+  @Param({"1"})
+  public int asyncConnections;
+
+  private BenchmarkBaseline<?> runner;
+  private List<C> connections;
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private AtomicInteger unissued;
+  private CountDownLatch completed;
+
+  /**
+   * @return A new connection of the async driver
+   */
+  protected abstract C connect();
+
+  /**
+   * @return Emits the check-id of every record found for the check-id, lazily (nothing happens before the subscription)
+   */
+  protected abstract Publisher<Long> read(C connection, long checkId);
+
+  protected abstract void close(C connection) throws Exception;
+
+  protected void start(BenchmarkBaseline<?> runner) {
+    LOG.info("Opening {} async connections with {} reads in flight each", asyncConnections, pipelineDepth);
+    this.runner = runner;
+    this.connections = new ArrayList<>(asyncConnections);
+    for (int i = 0; i < asyncConnections; ++i) {
+      connections.add(connect());
+    }
+  }
+
+  protected void startIteration() {
+    recorder.getIntervalHistogram(); // drop everything recorded in between iterations
+  }
+
+  protected void finishIteration(LatencyCounters counters) {
+    counters.update(recorder.getIntervalHistogram());
+    LOG.info("{} reads, p50 {} ms, p99 {} ms at depth {}", counters.samples, counters.p50, counters.p99, pipelineDepth);
+  }
+
+  /**
+   * Issues the reads of one invocation and waits for all of them.
+   *
+   * @return The number of reads
+   */
+  @SneakyThrows
+  public int readAll() {
+    int reads = asyncConnections * pipelineDepth * READS_PER_SLOT;
+    unissued = new AtomicInteger(reads);
+    completed = new CountDownLatch(reads);
+    for (C connection : connections) {
+      for (int i = 0; i < pipelineDepth; ++i) {
+        issue(connection);
+      }
+    }
+    if (!completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      throw new IllegalStateException(completed.getCount() + " reads not completed after " + TIMEOUT_SECONDS + "s");
+    }
+    Throwable error = failure.getAndSet(null);
+    if (error != null) {
+      throw error;
+    }
+    return reads;
+  }
+
+  @SneakyThrows
+  protected void stop() {
+    for (C connection : connections) {
+      close(connection);
+    }
+    LOG.info("{} async connections closed", connections.size());
+  }
+
+  private void issue(C connection) {
+    if (unissued.getAndDecrement() > 0) {
+      long checkId = runner.getRandomCheckId();
+      read(connection, checkId).subscribe(new Read(connection, checkId, System.nanoTime()));
+    }
+  }
+
+  /**
+   * Subscriber of a single read, issues the next read of its connection once done
+   */
+  private class Read implements Subscriber<Long> {
+    private final C connection;
+    private final long checkId;
+    private final long start;
+    private Subscription subscription;
+    private boolean found;
+
+    Read(C connection, long checkId, long start) {
+      this.connection = connection;
+      this.checkId = checkId;
+      this.start = start;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(Long value) {
+      if (value != checkId) {
+        failure.compareAndSet(null, new IllegalStateException("Read " + value + " instead of " + checkId));
+      }
+      found = true;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      failure.compareAndSet(null, error);
+      done();
+    }
+
+    @Override
+    public void onComplete() {
+      if (!found) {
+        failure.compareAndSet(null, new IllegalStateException("Record not found!"));
+      }
+      done();
+    }
+
+    private void done() {
+      recorder.recordValue(System.nanoTime() - start);
+      try {
+        issue(connection);
+      } finally {
+        completed.countDown(); // after the issue, the last read of an invocation must not issue into the next one
+      }
+    }
+  }
+}
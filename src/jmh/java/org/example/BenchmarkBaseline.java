@@ -1,7 +1,11 @@
 package org.example;
 
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
@@ -9,6 +13,9 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import lombok.SneakyThrows;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -22,6 +29,7 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,18 +48,40 @@ import org.slf4j.LoggerFactory;
 @Fork(value = 1)
 public abstract class BenchmarkBaseline<T extends AutoCloseable> extends DatabaseRecordsGenerator {
   private static final Logger LOG = LoggerFactory.getLogger(BenchmarkBaseline.class);
-  private static final int BULK_SIZE = 100;
   private static final int THREAD_NUMBER_TO_FILL_DB = 4;
+  private static final int THREAD_NUMBER_TO_GENERATE = 2;
+  private static final int DELETE_BATCH_SIZE = 1000;
+  /**
+   * Optional {@link DatasetSnapshot} to be loaded instead of generating the records, {@code -Dbenchmark.dataset=...}
+   */
+  private static final String DATASET = System.getProperty("benchmark.dataset");
+  /**
+   * Keeps the records of the previous trial and only inserts the missing ones, {@code -Dbenchmark.growth=true}
+   */
+  private static final boolean GROWTH = Boolean.getBoolean("benchmark.growth");
 
   private final AtomicInteger numberOfInserts = new AtomicInteger(0);
   private final BlockingQueue<List<Lookup>> unboundedQueue = new ArrayBlockingQueue<>(2 * THREAD_NUMBER_TO_FILL_DB, true);
 
-  private volatile boolean producerThreadRunning = false;
+  private final AtomicInteger runningProducerThreads = new AtomicInteger(0);
+  private DatabaseStats statsAtStart;
   protected T database;
 
   @Param({"50", "1000", "5000", "10000", "50000", "100000", "250000", "500000", "1000000", "5000000", "10000000"})
   public int documentCount;
 
+  /**
+   * Number of records per {@link #insertDocuments(AutoCloseable, List)} when filling the database
+   */
+  @Param({"100"})
+  public int bulkSize;
+
+  /**
+   * Which records are read, see {@link KeyDistribution}, e.g. {@code -p keyDistribution=uniform,zipf:0.99,hotspot:80/20,latest}
+   */
+  @Param({"uniform"})
+  public String keyDistribution;
+
   /**
    * Sets up, purges and fills data for the test. Will be executed once before the benchmark. Can also be used to ensure indexes.
    *
@@ -60,11 +90,23 @@ public abstract class BenchmarkBaseline<T extends AutoCloseable> extends Databas
   protected abstract T createDatabaseConnection();
 
   /**
-   * Adds the batch of records to the database.
+   * Adds the batch of records to the database. Has to be thread-safe as long as every thread uses its own connection.
    *
-   * @param records {@link List} of at max {@link BenchmarkBaseline#BULK_SIZE} elements to be inserted
+   * @param connection The {@link #fillConnection()} when filling the database, a connection of its own for every writer of the write
+   *   benchmarks
+   * @param records {@link List} of at max {@link BenchmarkBaseline#bulkSize} elements to be inserted
    */
-  protected abstract void insertDocuments(List<Lookup> records);
+  protected abstract void insertDocuments(T connection, List<Lookup> records);
+
+  /**
+   * Removes exactly the given records (including everything stored along with them), used to undo the inserts of the write benchmarks.
+   */
+  protected abstract void deleteDocuments(T connection, List<Lookup> records);
+
+  /**
+   * @return Name of the strategy {@link #insertDocuments(AutoCloseable, List)} uses, for the ingest report
+   */
+  protected abstract String ingestStrategy();
 
   /**
    * Removes all records from the database, indexes should obviously not be dropped.
@@ -76,38 +118,167 @@ public abstract class BenchmarkBaseline<T extends AutoCloseable> extends Databas
    */
   protected abstract void rebuildIndex();
 
+  /**
+   * @return The number of records in the database
+   */
+  protected abstract long countDocuments();
+
+  /**
+   * Fetches the record with the given check-id via the given connection and validates that the correct one has been returned. Has to be
+   * thread-safe as long as every thread uses its own connection.
+   *
+   * @param connection A connection created by {@link #createDatabaseConnection()}, not necessarily {@link #database}
+   * @return Whatever has been read, so it can be consumed by the benchmark
+   */
+  protected abstract Object readByCheckId(T connection, long checkId);
+
+  /**
+   * Reads the whole record of the check-id, like an application would to fill its cache.
+   */
+  protected abstract Lookup readLookupByCheckId(T connection, long checkId);
+
+  /**
+   * Reads all records in the given way and hands them to the consumer one by one, like an export.
+   *
+   * @param fetchSize Records per round trip, see {@link ScanState#fetchSize}
+   * @return The number of records read
+   */
+  protected abstract long scan(T connection, ScanStrategy strategy, int fetchSize, Consumer<Lookup> consumer);
+
+  /**
+   * Sets {@code archivedAt} of the record with the given id, {@code null} to unarchive it.
+   */
+  protected abstract void updateArchivedAt(T connection, String id, Instant archivedAt);
+
+  /**
+   * Sets {@code archivedAt} of all records with the given ids, like a batched archival job. By default one
+   * {@link #updateArchivedAt(AutoCloseable, String, Instant)} after the other.
+   */
+  protected void archiveAll(T connection, List<String> ids, Instant archivedAt) {
+    for (String id : ids) {
+      updateArchivedAt(connection, id, archivedAt);
+    }
+  }
+
+  /**
+   * Deletes all records created before the given time, like a retention job. The given records are exactly the ones in that range, by
+   * default they are deleted via {@link #deleteDocuments(AutoCloseable, List)}, runners with a range delete don't need them.
+   */
+  protected void purgeCreatedBefore(T connection, Instant createdBefore, Supplier<List<Lookup>> records) {
+    deleteDocuments(connection, records.get());
+  }
+
+  /**
+   * Collects sizes, cache counters and the plan of {@link #readByCheckId(AutoCloseable, long)} via {@link #database}. Called after the
+   * setup and before the teardown of every trial, the cache hit ratio of the trial is derived from the difference.
+   */
+  protected abstract DatabaseStats collectStats(long checkId);
+
+  /**
+   * Executes the query via the given connection, see {@link Query.Shape} for the shapes every runner has to support.
+   *
+   * @return The records found, fully read
+   */
+  protected abstract List<Lookup> query(T connection, Query query);
+
+  /**
+   * @return The connection a consumer of {@link #fillDatabase(List)} inserts with, closed when the fill is done unless it is the
+   *   {@link #database}. By default all consumers share the {@link #database}.
+   */
+  protected T fillConnection() {
+    return database;
+  }
+
+  /**
+   * Brings schema and indexes into the layout selected by the params of the runner, called right after connecting. Must be cheap if
+   * the layout is in place already and keep the records if possible, so growth mode keeps working. By default the schema of the init
+   * scripts is used as is.
+   */
+  protected void applyLayout() {
+  }
+
   @Setup(Level.Trial)
+  @SneakyThrows
   public void setup() {
     this.database = createDatabaseConnection();
+    applyLayout();
 
-    truncate();
-    rebuildIndex(); // for faster inserts
-    fillDatabase();
-    LOG.info("Rebuilding indexes ...");
-    rebuildIndex(); // for faster queries
+    try (var snapshot = DATASET == null ? null : DatasetSnapshot.open(Path.of(DATASET))) {
+      if (snapshot == null) {
+        fillCheckIdPool(documentCount);
+      } else {
+        LOG.info("Loading records from {} with seed {}", DATASET, snapshot.seed());
+        if (snapshot.seed() != SEED) {
+          LOG.warn("Seed {} differs from the snapshot, records written by the benchmarks may collide with the loaded ones", SEED);
+        }
+        useCheckIdPool(snapshot.checkIds(documentCount));
+      }
+      useKeyDistribution(keyDistribution);
+      int existing = GROWTH ? reusableDocuments() : 0;
+      if (existing == 0) {
+        truncate();
+        rebuildIndex(); // for faster inserts
+      }
+      numberOfInserts.set(existing);
+      long start = System.nanoTime();
+      fillDatabase(snapshot == null ? generatingProducers(existing) : List.of(() -> readLookups(snapshot, existing)));
+      reportIngest(documentCount - existing, System.nanoTime() - start);
+      // An incrementally grown index is what production has, rebuilding it would also cost O(n) per trial
+      if (existing == 0) {
+        LOG.info("Rebuilding indexes ...");
+        rebuildIndex(); // for faster queries
+      }
+    }
     LOG.info("{}/{} elements inserted. Database created", numberOfInserts.get(), documentCount);
+    statsAtStart = collectStatsSafely();
+  }
 
-    cleanupResources();
+  /**
+   * Checks whether the records in the database are the first records of the current dataset, which is the case if a previous trial
+   * filled it with a lower {@link #documentCount}. Needs {@link #checkIdPool} to be filled already.
+   *
+   * @return The number of records that can be kept, {@code 0} if the database has to be refilled
+   */
+  private int reusableDocuments() {
+    long existing = countDocuments();
+    if (existing == 0) {
+      return 0;
+    }
+    if (existing > documentCount) {
+      LOG.info("Growth mode: {} records exist but only {} are needed, refilling", existing, documentCount);
+      return 0;
+    }
+    try {
+      readByCheckId(database, checkIdPool[0]);
+      readByCheckId(database, checkIdPool[(int) existing - 1]);
+    } catch (Exception e) {
+      LOG.info("Growth mode: {} records exist but are not part of the current dataset, refilling", existing);
+      return 0;
+    }
+    LOG.info("Growth mode: keeping {} records, inserting {}", existing, documentCount - existing);
+    return (int) existing;
   }
 
   /**
-   * Fills the database with exactly {@link #documentCount} elements that are generated according to {@link #generateRecord()}. This is done
-   * in a multi-threaded way:
+   * Fills the database with exactly {@link #documentCount} elements that are generated according to {@link #generateRecord(long)} or read
+   * from the {@link #DATASET}. This is done in a multi-threaded way:
    * <ol>
-   * <li>One producer thread that generates the records and pushed them as batches with {@link #BULK_SIZE} to the blocking queue
-   * ({@link #unboundedQueue})</li>
+   * <li>Producer threads that push the records as batches with {@link #bulkSize} to the blocking queue ({@link #unboundedQueue}). Either
+   * {@link #THREAD_NUMBER_TO_GENERATE} threads where producer {@code p} generates every batch {@code b} with
+   * {@code b % THREAD_NUMBER_TO_GENERATE == p}, or one thread reading the snapshot</li>
    * <li>{@link #THREAD_NUMBER_TO_FILL_DB} threads that that poll from the queue and insert the batches via
-   * {@link #insertDocuments(List)}</li>
+   * {@link #insertDocuments(AutoCloseable, List)}</li>
    * </ol>
    *
    * Since JMH doesn't allow dangling threads, the executor is shutdown on completion of those threads. An alternative would be to run
-   * threads in daemon mode. Check for completion is done via {@link #producerThreadRunning} and a {@link CountDownLatch}.
+   * threads in daemon mode. Check for completion is done via {@link #runningProducerThreads} and a {@link CountDownLatch}.
    */
   @SneakyThrows
-  private void fillDatabase() {
-    producerThreadRunning = true;
-    ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUMBER_TO_FILL_DB + 1);
-    executor.execute(this::generateLookups); // producer thread
+  private void fillDatabase(List<Runnable> producers) {
+    runningProducerThreads.set(producers.size());
+    ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUMBER_TO_FILL_DB + producers.size());
+    // producer threads
+    producers.forEach(executor::execute);
     CountDownLatch latch = new CountDownLatch(THREAD_NUMBER_TO_FILL_DB);
     // consumer threads
     for (int i = 0; i < THREAD_NUMBER_TO_FILL_DB; ++i) {
@@ -128,13 +299,19 @@ public abstract class BenchmarkBaseline<T extends AutoCloseable> extends Databas
   private void pullAndInsert() {
     LOG.info("Consumer thread for db inserts started.....");
     int progressNumber = Math.max(50, documentCount / 100);
-    List<Lookup> batch;
-    while ((batch = unboundedQueue.poll(2, TimeUnit.SECONDS)) != null || producerThreadRunning) {
+    T connection = fillConnection();
+    while (true) {
+      // checked before polling, otherwise the last batch could be put between an empty poll and the check
+      boolean producersFinished = runningProducerThreads.get() == 0;
+      List<Lookup> batch = unboundedQueue.poll(2, TimeUnit.SECONDS);
       if (batch == null) {
+        if (producersFinished) {
+          break;
+        }
         LOG.info("Waiting {}/{} .....", numberOfInserts.get(), documentCount);
         continue;
       }
-      insertDocuments(batch);
+      insertDocuments(connection, batch);
       int size = batch.size();
       int nrBeforeUpdate = numberOfInserts.getAndUpdate(i -> i + size);
 
@@ -145,41 +322,154 @@ public abstract class BenchmarkBaseline<T extends AutoCloseable> extends Databas
         }
       }
     }
+    if (connection != database) {
+      connection.close();
+    }
     LOG.info("Consumer thread for db inserts finished.....");
   }
 
+  private List<Runnable> generatingProducers(int firstIndex) {
+    List<Runnable> producers = new ArrayList<>(THREAD_NUMBER_TO_GENERATE);
+    for (int i = 0; i < THREAD_NUMBER_TO_GENERATE; ++i) {
+      int producer = i;
+      producers.add(() -> generateLookups(producer, firstIndex));
+    }
+    return producers;
+  }
+
   @SneakyThrows
-  private void generateLookups() {
-    LOG.info("Producer thread for lookups started.....");
-    List<Lookup> records = new ArrayList<>(BULK_SIZE);
-    for (int i = 1; i <= documentCount; ++i) {
-      records.add(generateRecord());
-
-      if (i % BULK_SIZE == 0) {
-        unboundedQueue.put(records);
-        records = new ArrayList<>(BULK_SIZE);
+  private void generateLookups(int producer, int firstIndex) {
+    LOG.info("Producer thread {} for lookups started.....", producer);
+    for (long from = firstIndex + (long) producer * bulkSize; from < documentCount;
+      from += (long) THREAD_NUMBER_TO_GENERATE * bulkSize) {
+      long to = Math.min(from + bulkSize, documentCount);
+      List<Lookup> records = new ArrayList<>((int) (to - from));
+      for (long i = from; i < to; ++i) {
+        records.add(generateRecord(i));
       }
+      unboundedQueue.put(records);
     }
-    if (!records.isEmpty()) {
+    LOG.info("Producer thread {} for lookups finished.....", producer);
+    runningProducerThreads.decrementAndGet();
+  }
+
+  @SneakyThrows
+  private void readLookups(DatasetSnapshot snapshot, int firstIndex) {
+    LOG.info("Producer thread for snapshot started.....");
+    DatasetSnapshot.Cursor cursor = snapshot.cursor();
+    cursor.skip(firstIndex);
+    for (int from = firstIndex; from < documentCount; from += bulkSize) {
+      int size = Math.min(bulkSize, documentCount - from);
+      List<Lookup> records = new ArrayList<>(size);
+      for (int i = 0; i < size; ++i) {
+        records.add(cursor.next());
+      }
       unboundedQueue.put(records);
     }
-    LOG.info("Producer thread for lookups finished.....");
-    producerThreadRunning = false;
+    LOG.info("Producer thread for snapshot finished.....");
+    runningProducerThreads.decrementAndGet();
+  }
+
+  /**
+   * Deletes the records {@code [fromIndex, toIndex)} of the dataset again, which have been inserted by a benchmark, in batches of
+   * {@link #DELETE_BATCH_SIZE}.
+   */
+  protected void deleteGenerated(T connection, long fromIndex, long toIndex) {
+    for (long from = fromIndex; from < toIndex; from += DELETE_BATCH_SIZE) {
+      long to = Math.min(from + DELETE_BATCH_SIZE, toIndex);
+      List<Lookup> records = new ArrayList<>((int) (to - from));
+      for (long i = from; i < to; ++i) {
+        records.add(generateRecord(i));
+      }
+      deleteDocuments(connection, records);
+    }
+  }
+
+  /**
+   * @return Simple name of the runner, without the subclasses JMH generates
+   */
+  protected String runnerName() {
+    Class<?> type = getClass();
+    while (type.getSimpleName().contains("_jmhType")) {
+      type = type.getSuperclass();
+    }
+    return type.getSimpleName();
+  }
+
+  /**
+   * Logs the insert rate of {@link #fillDatabase(List)} and appends it to {@code build/ingest.csv}. Includes waiting for the producers,
+   * which is only relevant for very fast strategies.
+   */
+  private void reportIngest(long records, long nanos) {
+    if (records == 0) {
+      return;
+    }
+    double seconds = nanos / 1e9;
+    double rowsPerSecond = records / seconds;
+    LOG.info("{} records inserted in {} s via {} with bulk size {}: {} rows/s", records, seconds, ingestStrategy(), bulkSize,
+      Math.round(rowsPerSecond));
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("runner", runnerName());
+    row.put("strategy", ingestStrategy());
+    row.put("bulkSize", bulkSize);
+    row.put("documentCount", documentCount);
+    row.put("inserted", records);
+    row.put("seconds", seconds);
+    row.put("rowsPerSecond", rowsPerSecond);
+    CsvReport.append("ingest", row);
   }
 
-  private void cleanupResources() {
-    uniqueCheckIdsList = new ArrayList<>(uniqueCheckIds);
-    uniqueCheckIds.clear();
-    uniqueCalcReqIds.clear();
+  /**
+   * Appends the {@link DatabaseStats} of the trial to {@code build/stats.csv}, the cache hit ratio is the one since the end of the setup.
+   */
+  private void reportStats(BenchmarkParams params) {
+    DatabaseStats stats = collectStatsSafely();
+    if (stats == null) {
+      return;
+    }
+    Long cacheMisses = null;
+    Double cacheHitRatio = null;
+    if (statsAtStart != null && stats.cacheRequests != null && stats.cacheMisses != null) {
+      long requests = stats.cacheRequests - statsAtStart.cacheRequests;
+      cacheMisses = stats.cacheMisses - statsAtStart.cacheMisses;
+      cacheHitRatio = requests > 0 ? 1 - (double) cacheMisses / requests : null;
+    }
+    LOG.info("{} rows, {} bytes table, {} bytes indexes, {} bytes cache with a hit ratio of {}", stats.rows, stats.tableBytes,
+      stats.indexBytes, stats.cacheBytes, cacheHitRatio);
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("runner", runnerName());
+    row.put("benchmark", params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1));
+    row.put("params", params.getParamsKeys().stream().map(k -> k + "=" + params.getParam(k)).collect(Collectors.joining(";")));
+    row.put("documentCount", documentCount);
+    row.put("rows", stats.rows);
+    row.put("tableBytes", stats.tableBytes);
+    row.put("indexBytes", stats.indexBytes);
+    row.put("indexSizes", stats.indexSizes);
+    row.put("cacheBytes", stats.cacheBytes);
+    row.put("cacheMisses", cacheMisses);
+    row.put("cacheHitRatio", cacheHitRatio);
+    row.put("plan", stats.plan);
+    CsvReport.append("stats", row);
+  }
+
+  /**
+   * Statistics are nice to have, a database that doesn't allow them (e.g. missing privileges) must not fail the benchmark
+   */
+  DatabaseStats collectStatsSafely() {
+    try {
+      return collectStats(checkIdPool[0]);
+    } catch (Exception e) {
+      LOG.warn("Could not collect the database statistics", e);
+      return null;
+    }
   }
 
   @TearDown(Level.Trial)
-  public void teardown() throws Exception {
+  public void teardown(BenchmarkParams params) throws Exception {
+    reportStats(params);
     database.close();
-    // Maybe log stats of the databases (table/index)?
     LOG.info("Database closed");
-    cleanupResources();
-    uniqueCheckIdsList.clear();
+    checkIdPoolSize = 0;
   }
 
   public static class RandomCheckIdHolder {
@@ -0,0 +1,54 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * The {@link LookupCache} of one iteration of {@code benchmarkCachedRead}. The primary result is the effective latency of a read, JMH
+ * only gets the counts {@code :hits} and {@code :misses}. The ratios and sizes are appended to {@code build/cache.csv} per measurement
+ * iteration instead (see {@link IterationReport}), JMH would add them up: {@code hitRatio}, {@code missMs} the average time of the
+ * reads the database had to serve, {@code entries} and {@code heapMb} the retained heap of the cache (used heap after a full GC compared
+ * to the start of the trial).
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class CacheCounters {
+  private static final double NANOS_PER_MS = 1_000_000d;
+  private static final double BYTES_PER_MB = 1024d * 1024d;
+
+  public long hits;
+  public long misses;
+  double hitRatio;
+  long entries;
+  double heapMb;
+  private final IterationReport report = new IterationReport("cache");
+
+  @Setup(Level.Iteration)
+  public void reset(BenchmarkParams benchmarkParams, IterationParams iterationParams, ThreadParams threadParams) {
+    report.startIteration(benchmarkParams, iterationParams, threadParams);
+    hitRatio = heapMb = 0;
+    hits = misses = entries = 0;
+  }
+
+  void update(LookupCache cache, long heapBytes) {
+    hits = cache.hits();
+    misses = cache.misses();
+    hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    entries = cache.size();
+    heapMb = heapBytes / BYTES_PER_MB;
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("hitRatio", hitRatio);
+    row.put("missMs", misses == 0 ? 0 : cache.missNanos() / NANOS_PER_MS / misses);
+    row.put("entries", entries);
+    row.put("heapMb", heapMb);
+    report.append(row);
+  }
+}
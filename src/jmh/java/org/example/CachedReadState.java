@@ -0,0 +1,87 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads by check-id through a {@link LookupCache} in front of the database, the database only serves the misses. With
+ * {@link #cacheWritePercent} some invocations first update {@code archivedAt} of a random record and invalidate its entry, like the
+ * application would on a write. The updated records are restored after every iteration, the cache stays warm across iterations.
+ *
+ * Every runner has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete runner into the
+ * setup methods.
+ *
+ * @param <T> The database-type of the runner
+ */
+public abstract class CachedReadState<T extends AutoCloseable> {
+  private static final Logger LOG = LoggerFactory.getLogger(CachedReadState.class);
+
+  /**
+   * Maximum number of cached records
+   */
+  @Param({"100000"})
+  public int cacheEntries;
+
+  @Param({"LRU"})
+  public LookupCache.Eviction eviction;
+
+  /**
+   * Percentage of the invocations which update a record before reading
+   */
+  @Param({"0"})
+  public int cacheWritePercent;
+
+  private BenchmarkBaseline<T> runner;
+  private LookupCache cache;
+  private long heapAtStart;
+  private final Set<Integer> updated = new HashSet<>();
+
+  protected void start(BenchmarkBaseline<T> runner) {
+    this.runner = runner;
+    this.cache = new LookupCache(cacheEntries, eviction);
+    this.heapAtStart = usedHeapAfterGc();
+  }
+
+  public Lookup read() {
+    if (cacheWritePercent > 0 && ThreadLocalRandom.current().nextInt(100) < cacheWritePercent) {
+      int index = ThreadLocalRandom.current().nextInt(runner.documentCount);
+      updated.add(index);
+      write(index, DatabaseRecordsGenerator.REFERENCE_TIME.plusSeconds(index));
+    }
+    long checkId = runner.getRandomCheckId();
+    Lookup lookup = cache.get(checkId, id -> runner.readLookupByCheckId(runner.database, id));
+    if (((Number) lookup.identifiers.get("CHECK_ID")).longValue() != checkId) {
+      throw new IllegalStateException("Record not found!");
+    }
+    return lookup;
+  }
+
+  private void write(int index, Instant archivedAt) {
+    runner.updateArchivedAt(runner.database, runner.generateRecord(index).id, archivedAt);
+    cache.invalidate(runner.checkIdPool[index]);
+  }
+
+  /**
+   * Publishes the cache statistics of the iteration and restores the updated records
+   */
+  protected void finishIteration(CacheCounters counters) {
+    counters.update(cache, usedHeapAfterGc() - heapAtStart);
+    LOG.info("Hit ratio {} with {} entries, {} MB heap", counters.hitRatio, counters.entries, counters.heapMb);
+    cache.resetStatistics();
+    for (int index : updated) {
+      write(index, runner.generateRecord(index).archivedAt);
+    }
+    updated.clear();
+  }
+
+  private static long usedHeapAfterGc() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.SneakyThrows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Free-running simulated clients: from {@link #start()} to {@link #stop()} every client repeats its operation in a loop of its own, no
+ * client waits for another one. The benchmark thread only observes them, one invocation waits for the next completed operation via
+ * {@link #awaitOperation()}. So JMH's throughput is the one of all clients together, while the time of every single operation has to
+ * be recorded by the operations themselves.
+ */
+public class ClientLoops {
+  private static final Logger LOG = LoggerFactory.getLogger(ClientLoops.class);
+  private static final long STOP_TIMEOUT_SECONDS = 10;
+
+  private final ThreadType threadType;
+  private final List<Runnable> operations;
+  private final Semaphore completed = new Semaphore(0);
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private volatile boolean running;
+  private ExecutorService executor;
+
+  /**
+   * @param operations One operation per client, executed by that client only
+   */
+  public ClientLoops(ThreadType threadType, List<Runnable> operations) {
+    this.threadType = threadType;
+    this.operations = operations;
+  }
+
+  public void start() {
+    running = true;
+    executor = threadType.newExecutor(operations.size());
+    for (Runnable operation : operations) {
+      executor.execute(() -> loop(operation));
+    }
+  }
+
+  private void loop(Runnable operation) {
+    try {
+      while (running) {
+        operation.run();
+        completed.release();
+      }
+    } catch (Throwable e) {
+      failure.compareAndSet(null, e);
+      running = false;
+      completed.release(operations.size()); // wakes up the benchmark thread
+    }
+  }
+
+  /**
+   * Waits until one more operation of any client has completed
+   *
+   * @throws IllegalStateException If a client failed
+   */
+  @SneakyThrows
+  public void awaitOperation() {
+    completed.acquire();
+    Throwable e = failure.get();
+    if (e != null) {
+      throw new IllegalStateException("Client failed", e);
+    }
+  }
+
+  /**
+   * Lets every client finish its current operation and drops the completions nobody waited for
+   */
+  @SneakyThrows
+  public void stop() {
+    running = false;
+    executor.shutdown();
+    if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      LOG.error("Following client threads are running [{}]", executor.shutdownNow());
+    }
+    completed.drainPermits();
+  }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.HdrHistogram.Recorder;
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates {@link #clientThreads} clients reading in parallel. Every client has its own connection (or session) created via
+ * {@link BenchmarkBaseline#createDatabaseConnection()} and reads by random check-ids in a loop of its own during the whole iteration
+ * ({@link ClientLoops}), so a slow client doesn't hold back the others. One benchmark invocation is one completed read of any client,
+ * the latency of every single read is published as {@link LatencyCounters}.
+ *
+ * Every runner has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete runner into the
+ * setup methods.
+ *
+ * @param <T> The database-type of the runner
+ */
+public abstract class ConcurrentReadState<T extends AutoCloseable> {
+  private static final Logger LOG = LoggerFactory.getLogger(ConcurrentReadState.class);
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  @Param({"1", "16", "64", "256"})
+  public int clientThreads;
+
+  @Param({"PLATFORM"})
+  public ThreadType threadType;
+
+  private List<T> connections;
+  private ClientLoops clients;
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+
+  protected void start(BenchmarkBaseline<T> runner) {
+    LOG.info("Opening {} connections for {} client threads", clientThreads, threadType);
+    this.connections = new ArrayList<>(clientThreads);
+    List<Runnable> reads = new ArrayList<>(clientThreads);
+    for (int i = 0; i < clientThreads; ++i) {
+      T connection = runner.createDatabaseConnection();
+      connections.add(connection);
+      reads.add(() -> {
+        long checkId = runner.getRandomCheckId();
+        long start = System.nanoTime();
+        runner.readByCheckId(connection, checkId);
+        recorder.recordValue(System.nanoTime() - start);
+      });
+    }
+    this.clients = new ClientLoops(threadType, reads);
+  }
+
+  protected void startIteration() {
+    recorder.getIntervalHistogram(); // drop everything recorded in between iterations
+    clients.start();
+  }
+
+  /**
+   * Waits for the next read of any client
+   */
+  public void awaitRead() {
+    clients.awaitOperation();
+  }
+
+  /**
+   * Stops the clients and publishes the latencies of the iteration
+   */
+  protected void finishIteration(LatencyCounters counters) {
+    clients.stop();
+    counters.update(recorder.getIntervalHistogram());
+    LOG.info("{} reads by {} clients, p50 {} ms, p99 {} ms", counters.samples, clientThreads, counters.p50, counters.p99);
+  }
+
+  @SneakyThrows
+  protected void stop() {
+    for (T connection : connections) {
+      connection.close();
+    }
+    LOG.info("{} client connections closed", connections.size());
+  }
+}
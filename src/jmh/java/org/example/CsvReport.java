@@ -0,0 +1,46 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Appends rows to {@code build/<name>.csv} (directory can be changed via {@code -Dbenchmark.reports=...}) for results JMH can't report
+ * itself, e.g. because they are measured during the setup. The header is written with the first row.
+ */
+public final class CsvReport {
+  private static final Path DIRECTORY = Path.of(System.getProperty("benchmark.reports", "build"));
+
+  private CsvReport() {
+  }
+
+  public static synchronized void append(String name, Map<String, ?> row) {
+    Path file = DIRECTORY.resolve(name + ".csv");
+    try {
+      Files.createDirectories(DIRECTORY);
+      StringBuilder lines = new StringBuilder();
+      if (!Files.exists(file)) {
+        lines.append(row.keySet().stream().map(CsvReport::quote).collect(Collectors.joining(","))).append('\n');
+      }
+      lines.append(row.values().stream().map(CsvReport::quote).collect(Collectors.joining(","))).append('\n');
+      Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write " + file, e);
+    }
+  }
+
+  private static String quote(Object value) {
+    if (value == null) {
+      return "";
+    }
+    if (value instanceof Number) {
+      return value.toString();
+    }
+    return '"' + value.toString().replace("\"", "\"\"") + '"';
+  }
+}
@@ -0,0 +1,32 @@
+package org.example;
+
+/**
+ * Statistics of the database at one point in time, see {@link BenchmarkBaseline#collectStats(long)}. Values a database doesn't provide
+ * are {@code null}.
+ */
+public class DatabaseStats {
+  public long rows;
+  /**
+   * Size of the table(s) on disk, without indexes
+   */
+  public Long tableBytes;
+  public Long indexBytes;
+  /**
+   * Size of every single index, e.g. {@code lookup_pk=1234;identifier_lookup_values=5678}
+   */
+  public String indexSizes;
+  /**
+   * Configured size of the buffer pool / cache
+   */
+  public Long cacheBytes;
+  /**
+   * Cumulative number of page requests to the cache and how many of those had to be read from disk, only the difference between two
+   * points in time is meaningful
+   */
+  public Long cacheRequests;
+  public Long cacheMisses;
+  /**
+   * Execution plan of the read by check-id
+   */
+  public String plan;
+}
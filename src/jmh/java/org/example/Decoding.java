@@ -0,0 +1,17 @@
+package org.example;
+
+/**
+ * How {@code benchmarkRead} turns the result into the check-id it validates, {@code -p decoding=FULL,STREAMING}. Run it with
+ * {@code -prof gc} (the default of the gradle {@code jmh} task) to see the allocations per read next to the time.
+ */
+public enum Decoding {
+  /**
+   * What a typical application does: all columns / the whole document, parsed into a tree ({@code JsonNode}, {@link org.bson.Document})
+   */
+  FULL,
+  /**
+   * Only the check-id is selected / projected and read from the raw result without building a tree: a typed column for the JDBC
+   * runners, a {@code BsonReader} over the raw BSON for mongo
+   */
+  STREAMING
+}
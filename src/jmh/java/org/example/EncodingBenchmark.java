@@ -0,0 +1,236 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The client side cost per record, without any database: generating the records and encoding them the way the runners do, next to
+ * cheaper alternatives. Runs anywhere in a few minutes, e.g.
+ * {@code java -jar build/libs/db-benchmark-1.0-SNAPSHOT-jmh.jar EncodingBenchmark -prof gc}.
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+public class EncodingBenchmark extends DatabaseRecordsGenerator {
+  // power of two, the records are taken round-robin so the encoders don't see the same record all the time
+  private static final int RECORDS = 1024;
+  private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+  // Same text as Timestamp.toString() for whole seconds, which all generated instants are
+  private static final DateTimeFormatter TIMESTAMP_FORMATTER =
+    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.S").withZone(ZoneId.systemDefault());
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final JsonFactory jsonFactory = new JsonFactory();
+  private final BasicOutputBuffer bsonBuffer = new BasicOutputBuffer(512);
+  private final StringBuilder jsonBuilder = new StringBuilder(128);
+  private Lookup[] lookups;
+  private ByteBuffer encoded;
+  private int next;
+  private long nextIndex;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    lookups = new Lookup[RECORDS];
+    encoded = ByteBuffer.allocate(RECORDS * 256);
+    for (int i = 0; i < RECORDS; ++i) {
+      lookups[i] = generateRecord(i);
+      LookupCodec.write(encoded, lookups[i]);
+    }
+    encoded.flip();
+  }
+
+  private Lookup nextLookup() {
+    return lookups[next++ & (RECORDS - 1)];
+  }
+
+  /**
+   * What {@code generatingProducers} does per record
+   */
+  @Benchmark
+  public Lookup generateRecord() {
+    return generateRecord(nextIndex++);
+  }
+
+  /**
+   * What loading a {@link DatasetSnapshot} does per record instead of {@link #generateRecord()}
+   */
+  @Benchmark
+  public Lookup decodeSnapshotRecord() {
+    if (!encoded.hasRemaining()) {
+      encoded.rewind();
+    }
+    return LookupCodec.read(encoded);
+  }
+
+  /**
+   * The identifiers of a postgres insert ({@code saveInPostgres}, {@code COPY}) and of the mariadb JSON layout
+   */
+  @Benchmark
+  @SneakyThrows
+  public String identifiersObjectMapper() {
+    return objectMapper.writeValueAsString(nextLookup().identifiers);
+  }
+
+  /**
+   * {@link #identifiersObjectMapper()} via the streaming generator, no serializer lookup per value
+   */
+  @Benchmark
+  @SneakyThrows
+  public String identifiersJsonGenerator() {
+    var writer = new StringWriter(128);
+    try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+      generator.writeStartObject();
+      for (Map.Entry<String, Object> identifier : nextLookup().identifiers.entrySet()) {
+        if (identifier.getValue() instanceof List<?> values) {
+          generator.writeArrayFieldStart(identifier.getKey());
+          for (Object value : values) {
+            generator.writeNumber((Integer) value);
+          }
+          generator.writeEndArray();
+        } else {
+          generator.writeNumberField(identifier.getKey(), (Long) identifier.getValue());
+        }
+      }
+      generator.writeEndObject();
+    }
+    return writer.toString();
+  }
+
+  /**
+   * {@link #identifiersObjectMapper()} appended into a reused builder, the names and numbers never need escaping
+   */
+  @Benchmark
+  public String identifiersStringBuilder() {
+    StringBuilder json = jsonBuilder;
+    json.setLength(0);
+    json.append('{');
+    for (Map.Entry<String, Object> identifier : nextLookup().identifiers.entrySet()) {
+      if (json.length() > 1) {
+        json.append(',');
+      }
+      json.append('"').append(identifier.getKey()).append("\":");
+      if (identifier.getValue() instanceof List<?> values) {
+        json.append('[');
+        for (int i = 0; i < values.size(); ++i) {
+          json.append(i == 0 ? "" : ",").append((int) (Integer) values.get(i));
+        }
+        json.append(']');
+      } else {
+        json.append((long) (Long) identifier.getValue());
+      }
+    }
+    return json.append('}').toString();
+  }
+
+  /**
+   * The parameters of every JDBC insert
+   */
+  @Benchmark
+  public Timestamp timestampFrom() {
+    return Timestamp.from(nextLookup().createdAt);
+  }
+
+  /**
+   * The timestamps of the postgres {@code COPY} text
+   */
+  @Benchmark
+  public String timestampText() {
+    return Timestamp.from(nextLookup().createdAt).toString();
+  }
+
+  /**
+   * {@link #timestampText()} with a cached formatter, no intermediate {@link Timestamp}
+   */
+  @Benchmark
+  public String timestampTextFormatter() {
+    return TIMESTAMP_FORMATTER.format(nextLookup().createdAt);
+  }
+
+  /**
+   * Only building the document of {@code insertMany}
+   */
+  @Benchmark
+  public Document mongoDocument() {
+    return nextLookup().toMongoDocument();
+  }
+
+  /**
+   * Building and encoding the document, what the driver does before sending it
+   */
+  @Benchmark
+  public RawBsonDocument mongoDocumentEncoded() {
+    return new RawBsonDocument(nextLookup().toMongoDocument(), DOCUMENT_CODEC);
+  }
+
+  /**
+   * {@link #mongoDocumentEncoded()} written straight into a reused buffer, without a {@link Document} and codec lookups
+   *
+   * @return The size of the BSON
+   */
+  @Benchmark
+  public int mongoBsonWriter() {
+    Lookup lookup = nextLookup();
+    bsonBuffer.truncateToPosition(0);
+    try (var writer = new BsonBinaryWriter(bsonBuffer)) {
+      writer.writeStartDocument();
+      writer.writeString("_id", lookup.id);
+      writer.writeInt64("archivalId", lookup.archivalId);
+      writeDateTime(writer, "archivedAt", lookup.archivedAt);
+      writeDateTime(writer, "createdAt", lookup.createdAt);
+      writeDateTime(writer, "timestamp", lookup.timestamp);
+      writer.writeStartDocument("identifiers");
+      for (Map.Entry<String, Object> identifier : lookup.identifiers.entrySet()) {
+        if (identifier.getValue() instanceof List<?> values) {
+          writer.writeStartArray(identifier.getKey());
+          for (Object value : values) {
+            writer.writeInt32((Integer) value);
+          }
+          writer.writeEndArray();
+        } else {
+          writer.writeInt64(identifier.getKey(), (Long) identifier.getValue());
+        }
+      }
+      writer.writeEndDocument();
+      writer.writeEndDocument();
+    }
+    return bsonBuffer.getPosition();
+  }
+
+  private static void writeDateTime(BsonBinaryWriter writer, String name, Instant instant) {
+    if (instant == null) {
+      writer.writeNull(name);
+    } else {
+      writer.writeDateTime(name, instant.toEpochMilli());
+    }
+  }
+}
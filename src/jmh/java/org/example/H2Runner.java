@@ -0,0 +1,569 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Embedded H2 in the same JVM with the schema of {@code init.sql}, runs without docker. Gives a baseline without any network and makes
+ * it possible to profile the harness itself (generator, queue, states).
+ */
+public class H2Runner extends JdbcRunner {
+  private static final String[] SCHEMA = {
+    """
+    CREATE TABLE IF NOT EXISTS lookup (
+        id VARCHAR(512) NOT NULL PRIMARY KEY,
+        archival_id BIGINT NOT NULL UNIQUE,
+        timestamp TIMESTAMP(6) NOT NULL,
+        created_at TIMESTAMP(6) NOT NULL,
+        archived_at TIMESTAMP(6) DEFAULT NULL
+    )""",
+    "CREATE INDEX IF NOT EXISTS lookup_created_at_idx ON lookup (created_at)",
+    """
+    CREATE TABLE IF NOT EXISTS lookup_identifier (
+       id VARCHAR(512) NOT NULL,
+       name VARCHAR(255) NOT NULL,
+       value VARCHAR(255) NOT NULL
+    )""",
+    "CREATE INDEX IF NOT EXISTS lookup_identifier_lookup_idx ON lookup_identifier (name, value)"
+  };
+  private static final String READ_BY_CHECK_ID = """
+    SELECT *
+    FROM lookup l1
+    JOIN lookup_identifier l2 on l1.id = l2.id
+    WHERE l2.name = 'CHECK_ID' AND value = ?""";
+  private static final String READ_CHECK_ID_BY_CHECK_ID = """
+    SELECT l2.value
+    FROM lookup l1
+    JOIN lookup_identifier l2 on l1.id = l2.id
+    WHERE l2.name = 'CHECK_ID' AND value = ?""";
+  private static final String QUERY_BY_IDENTIFIER = """
+    SELECT l1.*
+    FROM lookup l1
+    JOIN lookup_identifier l2 on l1.id = l2.id
+    WHERE l2.name = ? AND l2.value = ?""";
+  private static final String QUERY_NOT_ARCHIVED_BY_IDENTIFIER = QUERY_BY_IDENTIFIER + " AND l1.archived_at IS NULL";
+  private static final String QUERY_CREATED_AT_RANGE = """
+    SELECT *
+    FROM lookup
+    WHERE created_at >= ? AND created_at < ?
+    ORDER BY created_at
+    LIMIT ?""";
+
+  public enum Storage {
+    /**
+     * {@code build/h2/benchmark.mv.db}, what a real database does (page cache, write-ahead log)
+     */
+    FILE,
+    /**
+     * Heap only, kept until the JVM exits
+     */
+    MEMORY
+  }
+
+  @Param({"FILE"})
+  public Storage storage;
+
+  @Param({"FULL"})
+  public Decoding decoding;
+
+  @State(Scope.Thread)
+  public static class H2ReadState extends RandomCheckIdHolder {
+    PreparedStatement statement;
+
+    @Setup(Level.Invocation)
+    @SneakyThrows
+    public void setup(H2Runner runner) {
+      this.statement = runner.database.prepareStatement(runner.decoding == Decoding.FULL ? READ_BY_CHECK_ID : READ_CHECK_ID_BY_CHECK_ID);
+      this.randomCheckId = runner.getRandomCheckId();
+      this.statement.setLong(1, randomCheckId);
+    }
+
+    @TearDown(Level.Invocation)
+    @SneakyThrows
+    public void release() {
+      statement.close();
+    }
+  }
+
+  @Benchmark
+  @SneakyThrows
+  public void benchmarkRead(H2ReadState state, Blackhole bl) {
+    ResultSet rs = state.statement.executeQuery();
+    rs.next();
+    long checkId = decoding == Decoding.FULL ? rs.getLong("value") : rs.getLong(1);
+    if (checkId != state.randomCheckId) {
+      throw new IllegalStateException("Record not found!");
+    }
+    bl.consume(rs);
+    rs.close(); // Should that be part of the benchmark?
+  }
+
+  /**
+   * {@link #benchmarkRead} split into its {@link ReadPhase}s, decoding the joined rows into a {@link Lookup} instead of only reading the
+   * value ({@link Decoding#STREAMING} still only reads the check-id)
+   */
+  @Benchmark
+  @SneakyThrows
+  public void benchmarkReadPhases(H2ReadState state, ReadPhaseTimer timer, ReadPhaseCounters counters, Blackhole bl) {
+    timer.start(state.randomCheckId);
+    try (ResultSet rs = state.statement.executeQuery()) {
+      timer.lap(ReadPhase.EXECUTE);
+      rs.next();
+      timer.lap(ReadPhase.FETCH);
+      Object decoded = switch (decoding) {
+        case FULL -> toLookupWithIdentifierRows(rs);
+        case STREAMING -> rs.getLong(1);
+      };
+      timer.lap(ReadPhase.DECODE);
+      long checkId = decoded instanceof Lookup lookup ? (Long) lookup.identifiers.get("CHECK_ID") : (Long) decoded;
+      if (checkId != state.randomCheckId) {
+        throw new IllegalStateException("Record not found!");
+      }
+      timer.lap(ReadPhase.VALIDATE);
+      bl.consume(decoded);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class H2ConcurrentReadState extends ConcurrentReadState<Connection> {
+    @Setup(Level.Trial)
+    public void setup(H2Runner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(LatencyCounters counters) {
+      finishIteration(counters);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+      stop();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public void benchmarkConcurrentRead(H2ConcurrentReadState state, LatencyCounters latencies) {
+    state.awaitRead();
+  }
+
+  @State(Scope.Thread)
+  public static class H2OpenLoopReadState extends OpenLoopReadState<Connection> {
+    @Setup(Level.Trial)
+    public void setup(H2Runner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(LatencyCounters counters) {
+      finishIteration(counters);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+      stop();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public void benchmarkOpenLoopRead(H2OpenLoopReadState state, LatencyCounters counters) {
+    state.issueRead();
+  }
+
+  @State(Scope.Thread)
+  public static class H2WriteState extends WriteState<Connection> {
+    @Setup(Level.Trial)
+    public void setup(H2Runner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(LatencyCounters latencies, WriteCounters counters) {
+      finishIteration(latencies, counters);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+      stop();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+  public void benchmarkWrite(H2WriteState state, WriteCounters counters, LatencyCounters latencies) {
+    counters.rows += state.awaitBatch();
+  }
+
+  @State(Scope.Thread)
+  public static class H2QueryState extends QueryState<Connection> {
+    @Setup(Level.Invocation)
+    public void setup(H2Runner runner) {
+      nextQuery(runner);
+    }
+  }
+
+  @Benchmark
+  public void benchmarkQuery(H2QueryState state, ResultCounters counters, Blackhole bl) {
+    List<Lookup> result = state.execute();
+    counters.rows += result.size();
+    bl.consume(result);
+  }
+
+  @State(Scope.Thread)
+  public static class H2MixedWorkloadState extends MixedWorkloadState<Connection> {
+    @Setup(Level.Trial)
+    public void setup(H2Runner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(MixedLatencyCounters counters) {
+      finishIteration(counters);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+      stop();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public void benchmarkMixed(H2MixedWorkloadState state, MixedLatencyCounters counters) {
+    state.awaitOperation();
+  }
+
+  @State(Scope.Thread)
+  public static class H2LifecycleState extends LifecycleState<Connection> {
+    @Setup(Level.Trial)
+    public void setup(H2Runner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void before() {
+      measureBefore();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(LifecycleCounters counters) {
+      finishIteration(counters);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 3)
+  public void benchmarkLifecycle(H2LifecycleState state, LifecycleCounters counters) {
+    state.execute();
+  }
+
+  @State(Scope.Thread)
+  public static class H2ScanState extends ScanState<Connection> {
+    @Setup(Level.Trial)
+    public void setup(H2Runner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void before() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(ScanCounters counters) {
+      finishIteration(counters);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public void benchmarkScan(H2ScanState state, ScanCounters counters, Blackhole bl) {
+    bl.consume(state.execute(bl::consume));
+  }
+
+  @Override
+  @SneakyThrows
+  protected Object readByCheckId(Connection connection, long checkId) {
+    try (PreparedStatement statement = connection.prepareStatement(READ_BY_CHECK_ID)) {
+      statement.setLong(1, checkId);
+      try (ResultSet rs = statement.executeQuery()) {
+        rs.next();
+        long value = rs.getLong("value");
+        if (value != checkId) {
+          throw new IllegalStateException("Record not found!");
+        }
+        return value;
+      }
+    }
+  }
+
+  /**
+   * The identifiers only contain the check-id, the read doesn't join the other ones
+   */
+  @Override
+  @SneakyThrows
+  protected Lookup readLookupByCheckId(Connection connection, long checkId) {
+    try (PreparedStatement statement = connection.prepareStatement(READ_BY_CHECK_ID)) {
+      statement.setLong(1, checkId);
+      try (ResultSet rs = statement.executeQuery()) {
+        rs.next();
+        return toLookupWithIdentifierRows(rs);
+      }
+    }
+  }
+
+  @Override
+  @SneakyThrows
+  protected void updateArchivedAt(Connection connection, String id, Instant archivedAt) {
+    try (PreparedStatement statement = connection.prepareStatement("UPDATE lookup SET archived_at = ? WHERE id = ?")) {
+      statement.setTimestamp(1, Optional.ofNullable(archivedAt).map(Timestamp::from).orElse(null));
+      statement.setString(2, id);
+      statement.executeUpdate();
+    }
+  }
+
+  @Override
+  @SneakyThrows
+  protected void archiveAll(Connection connection, List<String> ids, Instant archivedAt) {
+    try (PreparedStatement statement = connection.prepareStatement("UPDATE lookup SET archived_at = ? WHERE id = ?")) {
+      for (String id : ids) {
+        statement.setTimestamp(1, Optional.ofNullable(archivedAt).map(Timestamp::from).orElse(null));
+        statement.setString(2, id);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  /**
+   * The identifiers are not read, that would need another query per record
+   */
+  @Override
+  @SneakyThrows
+  protected List<Lookup> query(Connection connection, Query query) {
+    String sql = switch (query.shape) {
+      case USER_ID, PROFILE_ID -> QUERY_BY_IDENTIFIER;
+      case NOT_ARCHIVED_USER_ID -> QUERY_NOT_ARCHIVED_BY_IDENTIFIER;
+      case CREATED_AT_RANGE -> QUERY_CREATED_AT_RANGE;
+    };
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      if (query.shape == Query.Shape.CREATED_AT_RANGE) {
+        statement.setTimestamp(1, Timestamp.from(query.from));
+        statement.setTimestamp(2, Timestamp.from(query.to));
+        statement.setInt(3, Query.LIMIT);
+      } else {
+        statement.setString(1, query.identifier);
+        statement.setString(2, query.value.toString());
+      }
+      List<Lookup> result = new ArrayList<>();
+      try (ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          result.add(toLookup(rs, Map.of()));
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Creates the schema if it doesn't exist yet, there is no init script like for the containers. H2 has no server side prepare.
+   */
+  @Override
+  @SneakyThrows
+  protected Connection connect(boolean serverPrepare) {
+    String url = switch (storage) {
+      case FILE -> "jdbc:h2:" + Path.of("build", "h2", "benchmark").toAbsolutePath();
+      case MEMORY -> "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+    };
+    // VALUE is a keyword since H2 2.x, concurrent writers wait for row locks instead of failing after the default of 1s
+    Connection connection = DriverManager.getConnection(url + ";NON_KEYWORDS=VALUE;LOCK_TIMEOUT=10000", "benchmark", "benchmark");
+    try (Statement s = connection.createStatement()) {
+      for (String ddl : SCHEMA) {
+        s.execute(ddl);
+      }
+    }
+    return connection;
+  }
+
+  @Override
+  @SneakyThrows
+  protected void insertDocuments(Connection connection, List<Lookup> records) {
+    try (PreparedStatement statement = connection
+      .prepareStatement("INSERT INTO lookup (id, archival_id, timestamp, created_at, archived_at) VALUES (?, ?, ?, ?, ?)")) {
+      for (Lookup lookup : records) {
+        statement.setString(1, lookup.id);
+        statement.setLong(2, lookup.archivalId);
+        statement.setTimestamp(3, Timestamp.from(lookup.timestamp));
+        statement.setTimestamp(4, Timestamp.from(lookup.createdAt));
+        statement.setTimestamp(5, Optional.ofNullable(lookup.archivedAt).map(Timestamp::from).orElse(null));
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+    try (PreparedStatement statement = connection
+      .prepareStatement("INSERT INTO lookup_identifier (id, name, value) VALUES (?, ?, ?)")) {
+      for (Lookup lookup : records) {
+        lookup.identifiers.forEach((name, values) -> {
+          if (values instanceof Collection<?> col) {
+            col.forEach(value -> addIdentifier(statement, lookup.id, name, value));
+          } else {
+            addIdentifier(statement, lookup.id, name, values);
+          }
+        });
+      }
+      statement.executeBatch();
+    }
+  }
+
+  @Override
+  @SneakyThrows
+  protected void deleteDocuments(Connection connection, List<Lookup> records) {
+    deleteIdentifiers(connection, records);
+    try (PreparedStatement statement = connection.prepareStatement("DELETE FROM lookup WHERE id = ?")) {
+      for (Lookup lookup : records) {
+        statement.setString(1, lookup.id);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  /**
+   * The identifiers can't be found by {@code created_at}, so they are deleted like in {@link #deleteDocuments(Connection, List)}
+   */
+  @Override
+  @SneakyThrows
+  protected void purgeCreatedBefore(Connection connection, Instant createdBefore, Supplier<List<Lookup>> records) {
+    deleteIdentifiers(connection, records.get());
+    try (PreparedStatement statement = connection.prepareStatement("DELETE FROM lookup WHERE created_at < ?")) {
+      statement.setTimestamp(1, Timestamp.from(createdBefore));
+      statement.executeUpdate();
+    }
+  }
+
+  @SneakyThrows
+  private void deleteIdentifiers(Connection connection, List<Lookup> records) {
+    try (PreparedStatement statement = connection
+      .prepareStatement("DELETE FROM lookup_identifier WHERE name = ? AND value = ? AND id = ?")) {
+      for (Lookup lookup : records) {
+        lookup.identifiers.forEach((name, values) -> {
+          if (values instanceof Collection<?> col) {
+            col.forEach(value -> addIdentifier(statement, name, value.toString(), lookup.id));
+          } else {
+            addIdentifier(statement, name, values.toString(), lookup.id);
+          }
+        });
+      }
+      statement.executeBatch();
+    }
+  }
+
+  @Override
+  protected String ingestStrategy() {
+    return "BATCH";
+  }
+
+  @Override
+  protected void truncate() {
+    executecmd("TRUNCATE TABLE lookup");
+    executecmd("TRUNCATE TABLE lookup_identifier");
+  }
+
+  /**
+   * H2 can't rebuild its indexes in place, only the statistics of the optimizer are updated
+   */
+  @Override
+  protected void rebuildIndex() {
+    executecmd("ANALYZE");
+  }
+
+  @Override
+  @SneakyThrows
+  protected long countDocuments() {
+    try (var statement = database.prepareStatement("SELECT count(*) FROM lookup");
+      ResultSet rs = statement.executeQuery()) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+
+  /**
+   * H2 only knows the size of the tables without their indexes, and has no cache counters
+   */
+  @Override
+  protected DatabaseStats collectStats(long checkId) {
+    var stats = new DatabaseStats();
+    stats.rows = countDocuments();
+    stats.tableBytes = queryLong("SELECT DISK_SPACE_USED('LOOKUP') + DISK_SPACE_USED('LOOKUP_IDENTIFIER')");
+    stats.cacheBytes = queryLong(
+      "SELECT CAST(SETTING_VALUE AS BIGINT) * 1024 FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'CACHE_SIZE'");
+    stats.plan = queryText("\n", "EXPLAIN ANALYZE " + READ_BY_CHECK_ID, checkId);
+    return stats;
+  }
+
+  @SneakyThrows
+  private void executecmd(String query) {
+    try (var statement = database.prepareStatement(query)) {
+      statement.execute();
+    }
+  }
+
+  @SneakyThrows
+  private static void addIdentifier(PreparedStatement statement, Object first, Object second, Object third) {
+    statement.setString(1, first.toString());
+    statement.setString(2, second.toString());
+    statement.setString(3, third.toString());
+    statement.addBatch();
+  }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Appends one row per measurement iteration and JMH thread to {@code build/<name>.csv}, for values which must not be aggregated by JMH:
+ * aux counters of type {@code EVENTS} are added up over all iterations and threads, which is wrong for e.g. percentiles or sizes.
+ * Warmup iterations are skipped. The counters call {@link #startIteration} from their {@code @Setup(Level.Iteration)}.
+ */
+final class IterationReport {
+  private final String name;
+  private String runner;
+  private String benchmark;
+  private String params;
+  private int thread;
+  private int iteration;
+  private boolean measurement;
+
+  /**
+   * @param name Name of the csv file
+   */
+  IterationReport(String name) {
+    this.name = name;
+  }
+
+  void startIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, ThreadParams threadParams) {
+    String method = benchmarkParams.getBenchmark();
+    String className = method.substring(0, method.lastIndexOf('.'));
+    this.runner = className.substring(className.lastIndexOf('.') + 1);
+    this.benchmark = method.substring(method.lastIndexOf('.') + 1);
+    this.params = benchmarkParams.getParamsKeys().stream()
+      .map(k -> k + "=" + benchmarkParams.getParam(k))
+      .collect(Collectors.joining(";"));
+    this.thread = threadParams.getThreadIndex();
+    this.measurement = iterationParams.getType() == IterationType.MEASUREMENT;
+    if (measurement) {
+      ++iteration;
+    }
+  }
+
+  /**
+   * Appends the values of the current iteration, unless it is a warmup iteration
+   */
+  void append(Map<String, ?> values) {
+    if (!measurement) {
+      return;
+    }
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("runner", runner);
+    row.put("benchmark", benchmark);
+    row.put("params", params);
+    row.put("iteration", iteration);
+    row.put("thread", thread);
+    row.putAll(values);
+    CsvReport.append(name, row);
+  }
+}
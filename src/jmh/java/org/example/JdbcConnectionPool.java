@@ -0,0 +1,215 @@
+package org.example;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal connection pool with a statement cache per connection, similar to what a production pool (plus the driver's statement cache)
+ * does. Every borrow hands out a new proxy (a lease): {@code close()} returns the connection to the pool, a second {@code close()} is
+ * ignored and any other call after it fails, so a stale reference can't use the connection of the next lease.
+ * {@code prepareStatement(sql)} returns a cached statement whose {@code close()} only resets it. Code that prepares and closes a
+ * statement for every query therefore gets pooling and caching without any changes. An open transaction is rolled back on return and
+ * auto-commit switched on again.
+ *
+ * The pool grows to the number of connections used at the same time and never shrinks. A connection must only be used by one thread at
+ * a time, which is also true for the cached statements.
+ */
+public class JdbcConnectionPool implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcConnectionPool.class);
+
+  private final Supplier<Connection> connect;
+  private final int statementCacheSize;
+  private final Queue<PooledConnection> idle = new ConcurrentLinkedQueue<>();
+  private final List<Connection> physical = new CopyOnWriteArrayList<>();
+  private volatile boolean closed;
+
+  /**
+   * @param connect Opens a new physical connection
+   * @param statementCacheSize Number of statements cached per connection, the least recently used one is closed
+   */
+  public JdbcConnectionPool(Supplier<Connection> connect, int statementCacheSize) {
+    this.connect = connect;
+    this.statementCacheSize = statementCacheSize;
+  }
+
+  /**
+   * @return An idle connection or a new one if all are in use
+   */
+  public Connection borrow() {
+    if (closed) {
+      throw new IllegalStateException("Pool has been closed");
+    }
+    PooledConnection connection = idle.poll();
+    if (connection == null) {
+      Connection delegate = connect.get();
+      physical.add(delegate);
+      connection = new PooledConnection(delegate);
+    }
+    return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, new Lease(connection));
+  }
+
+  public int size() {
+    return physical.size();
+  }
+
+  /**
+   * Closes all physical connections, including the borrowed ones.
+   */
+  @Override
+  public void close() throws SQLException {
+    closed = true;
+    idle.clear();
+    for (Connection connection : physical) {
+      connection.close();
+    }
+    LOG.info("{} pooled connections closed", physical.size());
+  }
+
+  private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * One borrow of a {@link PooledConnection}, valid until it is closed.
+   */
+  private static class Lease implements InvocationHandler {
+    private final PooledConnection connection;
+    private boolean returned;
+
+    Lease(PooledConnection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!returned) {
+            returned = true;
+            connection.release();
+          }
+          return null;
+        case "isClosed":
+          return returned || connection.isClosed();
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        default:
+          if (returned) {
+            throw new SQLException("Connection has been returned to the pool");
+          }
+          return connection.invoke(method, args);
+      }
+    }
+  }
+
+  private class PooledConnection {
+    private final Connection delegate;
+    private final Map<String, PreparedStatement> statements;
+
+    PooledConnection(Connection delegate) {
+      this.delegate = delegate;
+      this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+          if (size() <= statementCacheSize) {
+            return false;
+          }
+          try {
+            ((CachedStatement) Proxy.getInvocationHandler(eldest.getValue())).delegate.close();
+          } catch (SQLException e) {
+            LOG.warn("Could not close evicted statement", e);
+          }
+          return true;
+        }
+      };
+    }
+
+    Object invoke(Method method, Object[] args) throws Throwable {
+      if (method.getName().equals("prepareStatement") && args.length == 1) {
+        return statements.computeIfAbsent((String) args[0], this::prepare);
+      }
+      return forward(delegate, method, args);
+    }
+
+    boolean isClosed() throws SQLException {
+      return closed || delegate.isClosed();
+    }
+
+    /**
+     * Resets the transaction state and makes the connection available again, closes it if the pool has been closed meanwhile or the
+     * reset failed.
+     */
+    void release() throws SQLException {
+      if (closed) {
+        delegate.close();
+        return;
+      }
+      try {
+        if (!delegate.getAutoCommit()) {
+          delegate.rollback();
+          delegate.setAutoCommit(true);
+        }
+      } catch (SQLException e) {
+        LOG.warn("Could not reset returned connection, closing it", e);
+        physical.remove(delegate);
+        delegate.close();
+        return;
+      }
+      idle.add(this);
+    }
+
+    private PreparedStatement prepare(String sql) {
+      try {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class},
+          new CachedStatement(delegate.prepareStatement(sql)));
+      } catch (SQLException e) {
+        throw new IllegalStateException("Could not prepare " + sql, e);
+      }
+    }
+  }
+
+  private static class CachedStatement implements InvocationHandler {
+    private final PreparedStatement delegate;
+
+    CachedStatement(PreparedStatement delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          // stays open for the next prepareStatement() with the same sql
+          delegate.clearBatch();
+          delegate.clearParameters();
+          return null;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        default:
+          return forward(delegate, method, args);
+      }
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Common base of the JDBC runners, decides how connections are handed out via {@link #connectionMode}.
+ */
+public abstract class JdbcRunner extends BenchmarkBaseline<Connection> {
+  private static final int STATEMENT_CACHE_SIZE = 64;
+  private static final String SCAN = "SELECT * FROM lookup";
+  private static final String SCAN_KEYSET = "SELECT * FROM lookup WHERE archival_id > ? ORDER BY archival_id LIMIT ?";
+  private static final String SCAN_OFFSET = "SELECT * FROM lookup ORDER BY archival_id LIMIT ? OFFSET ?";
+
+  public enum ConnectionMode {
+    /**
+     * Every connection is opened via the {@code DriverManager}, statements are prepared (and closed) for every query. The fill consumers
+     * share {@link #database}.
+     */
+    DIRECT,
+    /**
+     * Connections come from a {@link JdbcConnectionPool} with a statement cache per connection, the driver prepares on the server. Every
+     * fill consumer borrows a connection of its own.
+     */
+    POOLED
+  }
+
+  @Param({"DIRECT"})
+  public ConnectionMode connectionMode;
+
+  private JdbcConnectionPool pool;
+
+  /**
+   * Opens a new physical connection.
+   *
+   * @param serverPrepare Whether prepared statements should be prepared on the server (and cached by the driver), if supported
+   */
+  protected abstract Connection connect(boolean serverPrepare);
+
+  @Override
+  protected Connection createDatabaseConnection() {
+    if (connectionMode == ConnectionMode.DIRECT) {
+      return connect(false);
+    }
+    synchronized (this) {
+      if (pool == null) {
+        pool = new JdbcConnectionPool(() -> connect(true), STATEMENT_CACHE_SIZE);
+      }
+    }
+    return pool.borrow();
+  }
+
+  @Override
+  protected Connection fillConnection() {
+    return connectionMode == ConnectionMode.DIRECT ? super.fillConnection() : createDatabaseConnection();
+  }
+
+  /**
+   * Reads the columns of the {@code lookup} table of the current row.
+   */
+  @SneakyThrows
+  protected static Lookup toLookup(ResultSet rs, Map<String, Object> identifiers) {
+    Timestamp archivedAt = rs.getTimestamp("archived_at");
+    return new Lookup(
+      rs.getString("id"),
+      rs.getLong("archival_id"),
+      archivedAt == null ? null : archivedAt.toInstant(),
+      rs.getTimestamp("created_at").toInstant(),
+      rs.getTimestamp("timestamp").toInstant(),
+      identifiers);
+  }
+
+  /**
+   * Reads the record of a {@code lookup JOIN lookup_identifier} (one row per identifier value) starting at the current row, leaves the
+   * result set after the last row.
+   */
+  @SneakyThrows
+  protected static Lookup toLookupWithIdentifierRows(ResultSet rs) {
+    Map<String, Object> identifiers = new HashMap<>(4);
+    Lookup lookup = toLookup(rs, identifiers); // the columns of lookup are the same in every row, the identifiers are added below
+    do {
+      String name = rs.getString("name");
+      if (name.equals("CHECK_ID")) {
+        identifiers.put(name, rs.getLong("value"));
+      } else {
+        ((List<Object>) identifiers.computeIfAbsent(name, n -> new ArrayList<>())).add(rs.getInt("value"));
+      }
+    } while (rs.next());
+    return lookup;
+  }
+
+  /**
+   * Reads the current row of a scan, by default only the columns of {@code lookup}, like the queries of the runners with the identifiers
+   * in another table.
+   */
+  protected Lookup toScannedLookup(ResultSet rs) {
+    return toLookup(rs, Map.of());
+  }
+
+  @Override
+  protected long scan(Connection connection, ScanStrategy strategy, int fetchSize, Consumer<Lookup> consumer) {
+    return switch (strategy) {
+      case CURSOR -> scanCursor(connection, fetchSize, consumer);
+      case KEYSET, OFFSET -> scanPages(connection, strategy, fetchSize, consumer);
+    };
+  }
+
+  /**
+   * Postgres only uses a cursor within a transaction, with auto-commit it reads the whole result at once. The other drivers don't mind
+   * the transaction.
+   */
+  @SneakyThrows
+  private long scanCursor(Connection connection, int fetchSize, Consumer<Lookup> consumer) {
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try (PreparedStatement statement = connection.prepareStatement(SCAN)) {
+      statement.setFetchSize(fetchSize);
+      long count = 0;
+      try (ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          consumer.accept(toScannedLookup(rs));
+          ++count;
+        }
+      }
+      return count;
+    } finally {
+      connection.commit();
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  @SneakyThrows
+  private long scanPages(Connection connection, ScanStrategy strategy, int pageSize, Consumer<Lookup> consumer) {
+    long count = 0;
+    long lastArchivalId = Long.MIN_VALUE;
+    int rows;
+    do {
+      rows = 0;
+      try (PreparedStatement statement = connection.prepareStatement(strategy == ScanStrategy.KEYSET ? SCAN_KEYSET : SCAN_OFFSET)) {
+        if (strategy == ScanStrategy.KEYSET) {
+          statement.setLong(1, lastArchivalId);
+          statement.setInt(2, pageSize);
+        } else {
+          statement.setInt(1, pageSize);
+          statement.setLong(2, count);
+        }
+        try (ResultSet rs = statement.executeQuery()) {
+          while (rs.next()) {
+            Lookup lookup = toScannedLookup(rs);
+            lastArchivalId = lookup.archivalId;
+            consumer.accept(lookup);
+            ++rows;
+          }
+        }
+      }
+      count += rows;
+    } while (rows == pageSize);
+    return count;
+  }
+
+  /**
+   * @return The first column of the first row via {@link #database}, {@code null} if there is none
+   */
+  @SneakyThrows
+  protected Long queryLong(String sql, Object... parameters) {
+    try (PreparedStatement statement = database.prepareStatement(sql)) {
+      for (int i = 0; i < parameters.length; ++i) {
+        statement.setObject(i + 1, parameters[i]);
+      }
+      try (ResultSet rs = statement.executeQuery()) {
+        if (!rs.next()) {
+          return null;
+        }
+        long value = rs.getLong(1);
+        return rs.wasNull() ? null : value;
+      }
+    }
+  }
+
+  /**
+   * @return The first column of all rows via {@link #database}, joined by the delimiter
+   */
+  @SneakyThrows
+  protected String queryText(String delimiter, String sql, Object... parameters) {
+    try (PreparedStatement statement = database.prepareStatement(sql)) {
+      for (int i = 0; i < parameters.length; ++i) {
+        statement.setObject(i + 1, parameters[i]);
+      }
+      List<String> lines = new ArrayList<>();
+      try (ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          lines.add(rs.getString(1));
+        }
+      }
+      return String.join(delimiter, lines);
+    }
+  }
+
+  /**
+   * Closes the pool after {@link #database} (a pooled connection as well) has been closed. JMH calls the annotated method of the base
+   * class, so the pool is closed within the same teardown instead of another one in an undefined order.
+   */
+  @Override
+  public void teardown(BenchmarkParams params) throws Exception {
+    super.teardown(params);
+    if (pool != null) {
+      pool.close();
+      pool = null;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Latencies of one iteration. JMH only gets the number of recorded operations as secondary result {@code :samples}, normalized to the
+ * benchmark mode like every counter of type {@code OPERATIONS}. The percentiles in ms are appended to {@code build/latencies.csv} per
+ * measurement iteration and JMH thread instead (see {@link IterationReport}), JMH would add them up.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class LatencyCounters {
+  private static final double NANOS_PER_MS = 1_000_000d;
+
+  public long samples;
+  double p50;
+  double p90;
+  double p99;
+  double p99_9;
+  double max;
+  private final IterationReport report = new IterationReport("latencies");
+
+  @Setup(Level.Iteration)
+  public void reset(BenchmarkParams benchmarkParams, IterationParams iterationParams, ThreadParams threadParams) {
+    report.startIteration(benchmarkParams, iterationParams, threadParams);
+    p50 = p90 = p99 = p99_9 = max = 0;
+    samples = 0;
+  }
+
+  /**
+   * @param histogram latencies in ns
+   */
+  void update(Histogram histogram) {
+    p50 = histogram.getValueAtPercentile(50) / NANOS_PER_MS;
+    p90 = histogram.getValueAtPercentile(90) / NANOS_PER_MS;
+    p99 = histogram.getValueAtPercentile(99) / NANOS_PER_MS;
+    p99_9 = histogram.getValueAtPercentile(99.9) / NANOS_PER_MS;
+    max = histogram.getMaxValue() / NANOS_PER_MS;
+    samples = histogram.getTotalCount();
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("samples", samples);
+    row.put("p50", p50);
+    row.put("p90", p90);
+    row.put("p99", p99);
+    row.put("p99_9", p99_9);
+    row.put("max", max);
+    report.append(row);
+  }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * One lifecycle of {@link LifecycleState}, appended to {@code build/lifecycle.csv} per iteration (see {@link IterationReport}), e.g. the
+ * column {@code indexMbAfter}. The primary result is the time of archiving and purging, {@code archiveMs} and {@code purgeMs} are the
+ * parts of it. Index sizes (0 if the runner has no statistics) and read latencies are measured before the lifecycle, after it and
+ * after rebuilding the indexes. In ms and MB.
+ */
+@State(Scope.Thread)
+public class LifecycleCounters {
+  private static final double NANOS_PER_MS = 1_000_000d;
+  private static final double BYTES_PER_MB = 1024d * 1024d;
+
+  long archived;
+  long purged;
+  double archiveMs;
+  double purgeMs;
+  double indexMbBefore;
+  double indexMbAfter;
+  double indexMbRebuilt;
+  double readP50Before;
+  double readP50After;
+  double readP50Rebuilt;
+  double readP99Before;
+  double readP99After;
+  double readP99Rebuilt;
+  private final IterationReport report = new IterationReport("lifecycle");
+
+  @Setup(Level.Iteration)
+  public void reset(BenchmarkParams benchmarkParams, IterationParams iterationParams, ThreadParams threadParams) {
+    report.startIteration(benchmarkParams, iterationParams, threadParams);
+    archived = purged = 0;
+    archiveMs = purgeMs = 0;
+    indexMbBefore = indexMbAfter = indexMbRebuilt = 0;
+    readP50Before = readP50After = readP50Rebuilt = 0;
+    readP99Before = readP99After = readP99Rebuilt = 0;
+  }
+
+  void update(long archived, long purged, long archiveNanos, long purgeNanos) {
+    this.archived = archived;
+    this.purged = purged;
+    archiveMs = archiveNanos / NANOS_PER_MS;
+    purgeMs = purgeNanos / NANOS_PER_MS;
+  }
+
+  /**
+   * Called after {@link #update(long, long, long, long)}, appends the row of the iteration.
+   *
+   * @param readsBefore latencies in ns, like the other histograms
+   */
+  void update(Long indexBytesBefore, Histogram readsBefore, Long indexBytesAfter, Histogram readsAfter, Long indexBytesRebuilt,
+    Histogram readsRebuilt) {
+    indexMbBefore = megabytes(indexBytesBefore);
+    indexMbAfter = megabytes(indexBytesAfter);
+    indexMbRebuilt = megabytes(indexBytesRebuilt);
+    readP50Before = readsBefore.getValueAtPercentile(50) / NANOS_PER_MS;
+    readP50After = readsAfter.getValueAtPercentile(50) / NANOS_PER_MS;
+    readP50Rebuilt = readsRebuilt.getValueAtPercentile(50) / NANOS_PER_MS;
+    readP99Before = readsBefore.getValueAtPercentile(99) / NANOS_PER_MS;
+    readP99After = readsAfter.getValueAtPercentile(99) / NANOS_PER_MS;
+    readP99Rebuilt = readsRebuilt.getValueAtPercentile(99) / NANOS_PER_MS;
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("archived", archived);
+    row.put("purged", purged);
+    row.put("archiveMs", archiveMs);
+    row.put("purgeMs", purgeMs);
+    row.put("indexMbBefore", indexMbBefore);
+    row.put("indexMbAfter", indexMbAfter);
+    row.put("indexMbRebuilt", indexMbRebuilt);
+    row.put("readP50Before", readP50Before);
+    row.put("readP50After", readP50After);
+    row.put("readP50Rebuilt", readP50Rebuilt);
+    row.put("readP99Before", readP99Before);
+    row.put("readP99After", readP99After);
+    row.put("readP99Rebuilt", readP99Rebuilt);
+    report.append(row);
+  }
+
+  private static double megabytes(Long bytes) {
+    return bytes == null ? 0 : bytes / BYTES_PER_MB;
+  }
+}
@@ -0,0 +1,190 @@
+package org.example;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Archival lifecycle like production runs it: the records following the {@link #purgePercent} oldest ones (by {@code createdAt}) are
+ * archived in batches of {@code bulkSize}, then the oldest ones are purged by range deletes of {@code createdAt}, each covering about
+ * {@code bulkSize} records. Before and after, and once more after {@link BenchmarkBaseline#rebuildIndex()}, the size of the indexes and
+ * the latency of {@link #lifecycleReads} reads of records which are not purged are measured, so the bloat the lifecycle causes and what
+ * a rebuild gets back can be compared.
+ * <p>
+ * One invocation is a whole lifecycle (single shot). Afterwards the purged records are inserted again, the archived ones get their
+ * original {@code archivedAt} back and the indexes are rebuilt, so every invocation starts from the same dataset.
+ *
+ * Every runner has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete runner into the
+ * setup methods.
+ *
+ * @param <T> The database-type of the runner
+ */
+public abstract class LifecycleState<T extends AutoCloseable> {
+  private static final Logger LOG = LoggerFactory.getLogger(LifecycleState.class);
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final Instant ARCHIVED_AT = DatabaseRecordsGenerator.REFERENCE_TIME.plusSeconds(1);
+
+  /**
+   * Percentage of the records archived per lifecycle
+   */
+  @Param({"10"})
+  public int archivePercent;
+
+  /**
+   * Percentage of the (oldest) records purged per lifecycle
+   */
+  @Param({"10"})
+  public int purgePercent;
+
+  @Param({"1000"})
+  public int lifecycleReads;
+
+  private BenchmarkBaseline<T> runner;
+  // createdAt in epoch seconds << 32 | index of the record, ascending, only the purged and archived records
+  private long[] byCreatedAt;
+  private int purgeEnd;
+  private long[] readCheckIds;
+  private Sample before;
+  private long archiveNanos;
+  private long purgeNanos;
+
+  private record Sample(Long indexBytes, Histogram reads) {
+  }
+
+  protected void start(BenchmarkBaseline<T> runner) {
+    this.runner = runner;
+    int count = runner.documentCount;
+    LOG.info("Sorting {} records by createdAt", count);
+    long[] all = IntStream.range(0, count).parallel()
+      .mapToLong(index -> runner.generateRecord(index).createdAt.getEpochSecond() << 32 | index)
+      .sorted()
+      .toArray();
+    this.purgeEnd = boundary(all, (int) ((long) count * purgePercent / 100));
+    int archiveEnd = Math.min(count, purgeEnd + (int) ((long) count * archivePercent / 100));
+    this.byCreatedAt = Arrays.copyOf(all, archiveEnd);
+    if (purgeEnd == count) {
+      throw new IllegalArgumentException("Purging " + purgePercent + "% leaves no records to read");
+    }
+    var random = new SplittableRandom(DatabaseRecordsGenerator.SEED);
+    this.readCheckIds = random.ints(lifecycleReads, purgeEnd, count)
+      .mapToLong(position -> runner.checkIdPool[index(all[position])])
+      .toArray();
+  }
+
+  protected void measureBefore() {
+    before = measure();
+    archiveNanos = purgeNanos = 0;
+  }
+
+  /**
+   * Archives, then purges
+   */
+  public void execute() {
+    long start = System.nanoTime();
+    for (int from = purgeEnd; from < byCreatedAt.length; from += runner.bulkSize) {
+      runner.archiveAll(runner.database, ids(from, Math.min(byCreatedAt.length, from + runner.bulkSize)), ARCHIVED_AT);
+    }
+    long archived = System.nanoTime();
+    archiveNanos = archived - start;
+    for (int from = 0; from < purgeEnd; ) {
+      int to = boundary(byCreatedAt, Math.min(purgeEnd, from + runner.bulkSize));
+      Instant createdBefore = to < byCreatedAt.length ? createdAt(byCreatedAt[to]) : createdAt(byCreatedAt[to - 1]).plusSeconds(1);
+      int batchFrom = from;
+      runner.purgeCreatedBefore(runner.database, createdBefore, () -> records(batchFrom, to));
+      from = to;
+    }
+    purgeNanos = System.nanoTime() - archived;
+  }
+
+  /**
+   * Measures after the lifecycle and after rebuilding the indexes, then restores the dataset
+   */
+  protected void finishIteration(LifecycleCounters counters) {
+    Sample after = measure();
+    runner.rebuildIndex();
+    Sample rebuilt = measure();
+    counters.update(byCreatedAt.length - purgeEnd, purgeEnd, archiveNanos, purgeNanos);
+    counters.update(before.indexBytes, before.reads, after.indexBytes, after.reads, rebuilt.indexBytes, rebuilt.reads);
+    LOG.info("Index {} -> {} -> {} MB (before, after, rebuilt), read p50 {} -> {} -> {} ms", counters.indexMbBefore,
+      counters.indexMbAfter, counters.indexMbRebuilt, counters.readP50Before, counters.readP50After, counters.readP50Rebuilt);
+
+    LOG.info("Restoring {} purged and {} archived records", purgeEnd, byCreatedAt.length - purgeEnd);
+    for (int from = 0; from < purgeEnd; from += runner.bulkSize) {
+      runner.insertDocuments(runner.database, records(from, Math.min(purgeEnd, from + runner.bulkSize)));
+    }
+    List<String> wereArchived = new ArrayList<>();
+    List<String> wereNotArchived = new ArrayList<>();
+    for (int position = purgeEnd; position < byCreatedAt.length; ++position) {
+      Lookup original = runner.generateRecord(index(byCreatedAt[position]));
+      (original.archivedAt == null ? wereNotArchived : wereArchived).add(original.id);
+      if (wereArchived.size() == runner.bulkSize) {
+        runner.archiveAll(runner.database, wereArchived, DatabaseRecordsGenerator.REFERENCE_TIME);
+        wereArchived.clear();
+      }
+      if (wereNotArchived.size() == runner.bulkSize) {
+        runner.archiveAll(runner.database, wereNotArchived, null);
+        wereNotArchived.clear();
+      }
+    }
+    if (!wereArchived.isEmpty()) {
+      runner.archiveAll(runner.database, wereArchived, DatabaseRecordsGenerator.REFERENCE_TIME);
+    }
+    if (!wereNotArchived.isEmpty()) {
+      runner.archiveAll(runner.database, wereNotArchived, null);
+    }
+    runner.rebuildIndex();
+  }
+
+  private Sample measure() {
+    var reads = new Histogram(SIGNIFICANT_DIGITS);
+    for (long checkId : readCheckIds) {
+      long start = System.nanoTime();
+      runner.readByCheckId(runner.database, checkId);
+      reads.recordValue(System.nanoTime() - start);
+    }
+    DatabaseStats stats = runner.collectStatsSafely();
+    return new Sample(stats == null ? null : stats.indexBytes, reads);
+  }
+
+  /**
+   * @return The first position at or after {@code position} with another {@code createdAt} than its predecessor, so a range delete
+   *   of {@code createdAt} ends exactly there
+   */
+  private static int boundary(long[] byCreatedAt, int position) {
+    while (position > 0 && position < byCreatedAt.length && createdAt(byCreatedAt[position]).equals(createdAt(byCreatedAt[position - 1]))) {
+      ++position;
+    }
+    return position;
+  }
+
+  private List<String> ids(int from, int to) {
+    List<String> ids = new ArrayList<>(to - from);
+    for (int position = from; position < to; ++position) {
+      ids.add(runner.generateRecord(index(byCreatedAt[position])).id);
+    }
+    return ids;
+  }
+
+  private List<Lookup> records(int from, int to) {
+    List<Lookup> records = new ArrayList<>(to - from);
+    for (int position = from; position < to; ++position) {
+      records.add(runner.generateRecord(index(byCreatedAt[position])));
+    }
+    return records;
+  }
+
+  private static Instant createdAt(long entry) {
+    return Instant.ofEpochSecond(entry >>> 32);
+  }
+
+  private static int index(long entry) {
+    return (int) entry;
+  }
+}
@@ -0,0 +1,273 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coordinator of a read load spread over several worker JVMs ({@link LoadWorker}), for when a single JMH fork can't saturate the
+ * database or its own GC and JIT shouldn't be part of the numbers. Per {@code documentCount} it fills the database like a benchmark
+ * trial, starts the workers, lets all of them start the warmup and the measurement at the same time and merges their latency
+ * histograms into one row of {@code build/driver.csv}. The reads per second are based on the time the workers actually measured, from
+ * the first recorded read to the end of the last one. Like {@link LoadWorker} the latencies are service times of closed loops, without
+ * a correction for coordinated omission.
+ * <p>
+ * {@code java -cp build/libs/db-benchmark-1.0-SNAPSHOT-jmh.jar org.example.LoadDriver PostgresRunner -workers 4 -threads 16 -p
+ * documentCount=100000,1000000}
+ * <ul>
+ *   <li>{@code -workers}: number of worker JVMs (default {@code 2}), each reads the check-ids of every n-th record</li>
+ *   <li>{@code -threads}: client threads per worker with a connection each (default {@code 8})</li>
+ *   <li>{@code -warmup}, {@code -time}: seconds of warmup and measurement (default {@code 25} and {@code 60}, like the benchmarks)</li>
+ *   <li>{@code -p name=value}: {@code @Param} of the runner, more than one value only for {@code documentCount}</li>
+ * </ul>
+ * The {@code -Dbenchmark.*} properties of the coordinator are passed on to the workers.
+ */
+public class LoadDriver {
+  private static final Logger LOG = LoggerFactory.getLogger(LoadDriver.class);
+  static final String READY = "LOAD_WORKER_READY";
+  private static final long SETTLE_MILLIS = 1000;
+  private static final long CONNECT_TIMEOUT_MINUTES = 5;
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0) {
+      throw new IllegalArgumentException("Usage: LoadDriver <runner> [-workers n] [-threads n] [-warmup s] [-time s] [-p name=value]...");
+    }
+    String runnerName = args[0];
+    if (runnerName.equals("H2Runner") || runnerName.equals("OffHeapRunner")) {
+      throw new IllegalArgumentException(runnerName + " keeps its data in the JVM, the workers can't share it");
+    }
+    int workers = 2;
+    int threads = 8;
+    int warmup = 25;
+    int time = 60;
+    Map<String, String> params = new LinkedHashMap<>();
+    for (int i = 1; i < args.length; i += 2) {
+      switch (args[i]) {
+        case "-workers" -> workers = Integer.parseInt(args[i + 1]);
+        case "-threads" -> threads = Integer.parseInt(args[i + 1]);
+        case "-warmup" -> warmup = Integer.parseInt(args[i + 1]);
+        case "-time" -> time = Integer.parseInt(args[i + 1]);
+        case "-p" -> {
+          String[] param = args[i + 1].split("=", 2);
+          params.put(param[0], param[1]);
+        }
+        default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+    String documentCounts = params.getOrDefault("documentCount", defaultValue(newRunner(runnerName, Map.of()), "documentCount"));
+    for (String documentCount : documentCounts.split(",")) {
+      params.put("documentCount", documentCount.trim());
+      run(runnerName, params, workers, threads, warmup, time);
+    }
+  }
+
+  private static void run(String runnerName, Map<String, String> params, int workers, int threads, int warmup, int time)
+    throws Exception {
+    BenchmarkBaseline<?> runner = newRunner(runnerName, params);
+    LOG.info("Preparing {} with {} records", runnerName, runner.documentCount);
+    runner.setup();
+    try {
+      Path directory = Files.createDirectories(Path.of(System.getProperty("benchmark.reports", "build"), "driver"));
+      List<Process> processes = new ArrayList<>(workers);
+      List<Path> histogramFiles = new ArrayList<>(workers);
+      var ready = new CountDownLatch(workers);
+      for (int i = 0; i < workers; ++i) {
+        Path histogramFile = directory.resolve(runnerName + "-" + runner.documentCount + "-" + i + ".hgrm");
+        Files.deleteIfExists(histogramFile);
+        histogramFiles.add(histogramFile);
+        Process process = startWorker(runnerName, params, i, workers, threads, histogramFile);
+        processes.add(process);
+        pipeOutput(process, i, ready);
+      }
+      awaitReady(processes, ready);
+      long startAt = System.currentTimeMillis() + SETTLE_MILLIS + TimeUnit.SECONDS.toMillis(warmup);
+      long stopAt = startAt + TimeUnit.SECONDS.toMillis(time);
+      for (Process process : processes) {
+        try (Writer go = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.US_ASCII)) {
+          go.write(startAt + " " + stopAt + "\n");
+        }
+      }
+      LOG.info("{} workers with {} threads each started, measuring for {} s after {} s warmup", workers, threads, time, warmup);
+      for (int i = 0; i < processes.size(); ++i) {
+        int exitCode = processes.get(i).waitFor();
+        if (exitCode != 0) {
+          throw new IllegalStateException("Worker " + i + " failed with exit code " + exitCode);
+        }
+      }
+      report(runnerName, runner.documentCount, workers, threads, merge(histogramFiles));
+    } finally {
+      runner.database.close();
+    }
+  }
+
+  /**
+   * Waits until all workers are connected, fails as soon as one of them has exited
+   */
+  private static void awaitReady(List<Process> processes, CountDownLatch ready) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(CONNECT_TIMEOUT_MINUTES);
+    while (!ready.await(1, TimeUnit.SECONDS)) {
+      for (int i = 0; i < processes.size(); ++i) {
+        if (!processes.get(i).isAlive()) {
+          processes.forEach(Process::destroy);
+          throw new IllegalStateException("Worker " + i + " exited with code " + processes.get(i).exitValue() + " before connecting");
+        }
+      }
+      if (System.nanoTime() > deadline) {
+        processes.forEach(Process::destroy);
+        throw new IllegalStateException("Workers didn't connect within " + CONNECT_TIMEOUT_MINUTES + " minutes");
+      }
+    }
+  }
+
+  private static Process startWorker(String runnerName, Map<String, String> params, int worker, int workers, int threads,
+    Path histogramFile) throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    System.getProperties().stringPropertyNames().stream()
+      .filter(name -> name.startsWith("benchmark."))
+      .forEach(name -> command.add("-D" + name + "=" + System.getProperty(name)));
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(LoadWorker.class.getName());
+    command.add(runnerName);
+    command.add(worker + "/" + workers);
+    command.add(String.valueOf(threads));
+    command.add(histogramFile.toString());
+    params.forEach((name, value) -> command.add(name + "=" + value));
+    return new ProcessBuilder(command).redirectErrorStream(true).start();
+  }
+
+  /**
+   * Prefixes the output of the worker and counts down once it is connected
+   */
+  private static void pipeOutput(Process process, int worker, CountDownLatch ready) {
+    var thread = new Thread(() -> {
+      try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.equals(READY)) {
+            ready.countDown();
+          } else {
+            System.out.println("[worker " + worker + "] " + line);
+          }
+        }
+      } catch (IOException e) {
+        LOG.warn("Lost the output of worker {}", worker, e);
+      }
+    }, "worker-" + worker + "-output");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * @return The histograms of all workers, the time stamps span the measured time of all of them
+   */
+  @SneakyThrows
+  private static Histogram merge(List<Path> histogramFiles) {
+    Histogram merged = null;
+    long start = Long.MAX_VALUE;
+    long end = Long.MIN_VALUE;
+    for (Path file : histogramFiles) {
+      byte[] content = Files.readAllBytes(file);
+      ByteBuffer window = ByteBuffer.wrap(content, 0, 2 * Long.BYTES);
+      start = Math.min(start, window.getLong());
+      end = Math.max(end, window.getLong());
+      Histogram histogram = Histogram.decodeFromCompressedByteBuffer(
+        ByteBuffer.wrap(Arrays.copyOfRange(content, 2 * Long.BYTES, content.length)), 0);
+      if (merged == null) {
+        merged = histogram;
+      } else {
+        merged.add(histogram);
+      }
+    }
+    merged.setStartTimeStamp(start);
+    merged.setEndTimeStamp(end);
+    return merged;
+  }
+
+  private static void report(String runnerName, int documentCount, int workers, int threads, Histogram latencies) {
+    double nanosPerMs = 1_000_000d;
+    double measuredSeconds = (latencies.getEndTimeStamp() - latencies.getStartTimeStamp()) / 1000d;
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("runner", runnerName);
+    row.put("documentCount", documentCount);
+    row.put("workers", workers);
+    row.put("threadsPerWorker", threads);
+    row.put("reads", latencies.getTotalCount());
+    row.put("measuredSeconds", measuredSeconds);
+    row.put("readsPerSecond", measuredSeconds > 0 ? latencies.getTotalCount() / measuredSeconds : 0);
+    row.put("p50", latencies.getValueAtPercentile(50) / nanosPerMs);
+    row.put("p90", latencies.getValueAtPercentile(90) / nanosPerMs);
+    row.put("p99", latencies.getValueAtPercentile(99) / nanosPerMs);
+    row.put("p99_9", latencies.getValueAtPercentile(99.9) / nanosPerMs);
+    row.put("max", latencies.getMaxValue() / nanosPerMs);
+    LOG.info("{}", row);
+    CsvReport.append("driver", row);
+  }
+
+  /**
+   * @return The runner with the given params and the first value of the {@link Param} annotation for all others, as JMH would set them
+   */
+  @SneakyThrows
+  static BenchmarkBaseline<?> newRunner(String runnerName, Map<String, String> params) {
+    var runner = (BenchmarkBaseline<?>) Class.forName(LoadDriver.class.getPackageName() + "." + runnerName)
+      .getDeclaredConstructor().newInstance();
+    for (Class<?> type = runner.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        Param param = field.getAnnotation(Param.class);
+        if (param != null) {
+          String value = params.getOrDefault(field.getName(), param.value()[0]);
+          field.set(runner, convert(field.getType(), value.split(",")[0].trim()));
+        }
+      }
+    }
+    return runner;
+  }
+
+  @SneakyThrows
+  private static String defaultValue(BenchmarkBaseline<?> runner, String name) {
+    for (Class<?> type = runner.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if (field.getName().equals(name) && field.isAnnotationPresent(Param.class)) {
+          return String.join(",", field.getAnnotation(Param.class).value());
+        }
+      }
+    }
+    throw new IllegalArgumentException(runner.getClass().getSimpleName() + " has no param " + name);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object convert(Class<?> type, String value) {
+    if (type == int.class) {
+      return Integer.parseInt(value);
+    } else if (type == long.class) {
+      return Long.parseLong(value);
+    } else if (type == double.class) {
+      return Double.parseDouble(value);
+    } else if (type == boolean.class) {
+      return Boolean.parseBoolean(value);
+    } else if (type.isEnum()) {
+      return Enum.valueOf((Class<Enum>) type, value);
+    }
+    return value;
+  }
+}
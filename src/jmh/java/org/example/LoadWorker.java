@@ -0,0 +1,143 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One JVM of the {@link LoadDriver}: connects its threads, prints {@link LoadDriver#READY} and waits for the start and stop time on
+ * stdin. Until the start it warms up, afterwards every read by check-id started before the stop is recorded. The file gets the time
+ * actually measured (epoch ms of the start of the first and of the end of the last recorded read, 8 bytes each) followed by the
+ * histogram, compressed as HdrHistogram encodes it. If a read fails, the worker exits with 1 once all clients have stopped, so the
+ * driver doesn't report an incomplete histogram.
+ * <p>
+ * Every client is a closed loop, it issues the next read when the previous one has returned. The histogram therefore holds the service
+ * time of the reads: there is no correction for coordinated omission, a stalled database delays the reads that would have been issued
+ * meanwhile instead of recording them as late (see {@link OpenLoopReadState} for that).
+ * <p>
+ * Arguments: {@code <runner> <worker>/<workers> <threads> <histogram file> [name=value]...}
+ */
+public class LoadWorker {
+  private static final Logger LOG = LoggerFactory.getLogger(LoadWorker.class);
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  public static void main(String[] args) throws Exception {
+    String[] worker = args[1].split("/");
+    int index = Integer.parseInt(worker[0]);
+    int workers = Integer.parseInt(worker[1]);
+    int threads = Integer.parseInt(args[2]);
+    Path histogramFile = Path.of(args[3]);
+    Map<String, String> params = new LinkedHashMap<>();
+    for (int i = 4; i < args.length; ++i) {
+      String[] param = args[i].split("=", 2);
+      params.put(param[0], param[1]);
+    }
+    Histogram latencies;
+    try {
+      latencies = run(LoadDriver.newRunner(args[0], params), index, workers, threads);
+    } catch (Exception e) {
+      // exit explicitly, threads of the driver may keep the JVM alive
+      LOG.error("Worker {}/{} failed", index, workers, e);
+      System.exit(1);
+      return;
+    }
+    var buffer = ByteBuffer.allocate(latencies.getNeededByteBufferCapacity());
+    int length = latencies.encodeIntoCompressedByteBuffer(buffer);
+    Files.write(histogramFile, ByteBuffer.allocate(2 * Long.BYTES + length)
+      .putLong(latencies.getStartTimeStamp())
+      .putLong(latencies.getEndTimeStamp())
+      .put(buffer.array(), 0, length)
+      .array());
+    LOG.info("Worker {}/{} finished with {} reads", index, workers, latencies.getTotalCount());
+    System.exit(0);
+  }
+
+  private static <T extends AutoCloseable> Histogram run(BenchmarkBaseline<T> runner, int index, int workers, int threads)
+    throws Exception {
+    // every n-th record, so all workers together read the whole dataset in the key distribution of the runner
+    runner.fillCheckIdPool(runner.documentCount);
+    var checkIds = new long[(runner.documentCount - index + workers - 1) / workers];
+    for (int i = 0; i < checkIds.length; ++i) {
+      checkIds[i] = runner.checkIdPool[index + i * workers];
+    }
+    runner.useCheckIdPool(checkIds);
+    runner.useKeyDistribution(runner.keyDistribution);
+
+    List<T> connections = new ArrayList<>(threads);
+    for (int i = 0; i < threads; ++i) {
+      connections.add(runner.createDatabaseConnection());
+    }
+    LOG.info("Worker {}/{} connected {} threads for {} of {} records", index, workers, threads, checkIds.length, runner.documentCount);
+    System.out.println(LoadDriver.READY);
+    System.out.flush();
+    String[] times = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII)).readLine().split(" ");
+    long startAt = Long.parseLong(times[0]);
+    long stopAt = Long.parseLong(times[1]);
+
+    var recorder = new Recorder(SIGNIFICANT_DIGITS);
+    var firstStart = new AtomicLong(Long.MAX_VALUE);
+    var lastEnd = new AtomicLong(Long.MIN_VALUE);
+    var failure = new AtomicReference<Throwable>();
+    List<Thread> clients = new ArrayList<>(threads);
+    for (T connection : connections) {
+      var client = new Thread(() -> {
+        try {
+          read(runner, connection, recorder, startAt, stopAt, firstStart, lastEnd);
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+      client.start();
+      clients.add(client);
+    }
+    for (Thread client : clients) {
+      client.join();
+    }
+    for (T connection : connections) {
+      connection.close();
+    }
+    if (failure.get() != null) {
+      throw new IllegalStateException("Client failed, the histogram would be incomplete", failure.get());
+    }
+    Histogram latencies = recorder.getIntervalHistogram();
+    latencies.setStartTimeStamp(firstStart.get());
+    latencies.setEndTimeStamp(lastEnd.get());
+    return latencies;
+  }
+
+  /**
+   * @param firstStart Lowered to the epoch ms of the first recorded read of the client
+   * @param lastEnd Raised to the epoch ms the last recorded read of the client returned
+   */
+  private static <T extends AutoCloseable> void read(BenchmarkBaseline<T> runner, T connection, Recorder recorder, long startAt,
+    long stopAt, AtomicLong firstStart, AtomicLong lastEnd) {
+    long first = Long.MAX_VALUE;
+    long now;
+    while ((now = System.currentTimeMillis()) < stopAt) {
+      long checkId = runner.getRandomCheckId();
+      long start = System.nanoTime();
+      runner.readByCheckId(connection, checkId);
+      if (now >= startAt) {
+        recorder.recordValue(System.nanoTime() - start);
+        first = Math.min(first, now);
+      }
+    }
+    firstStart.accumulateAndGet(first, Math::min);
+    if (first != Long.MAX_VALUE) {
+      lastEnd.accumulateAndGet(System.currentTimeMillis(), Math::max);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded read-through cache of records by check-id, like an application would put in front of the database. The entries are kept in
+ * access order, the least recently used one is the eviction candidate. Not thread-safe, every {@link CachedReadState} has its own.
+ */
+public class LookupCache {
+
+  public enum Eviction {
+    /**
+     * Every miss is admitted, evicting the least recently used entry
+     */
+    LRU,
+    /**
+     * A miss is only admitted if it was requested more often than the least recently used entry (TinyLFU), so one-off reads of the
+     * cold tail can't flush the hot records. The frequencies are approximated by a count-min sketch, halved every {@code 10 *} capacity
+     * requests to forget old popularity.
+     */
+    TINY_LFU
+  }
+
+  private final int capacity;
+  private final LinkedHashMap<Long, Lookup> entries;
+  private final FrequencySketch sketch;
+  private long hits;
+  private long misses;
+  private long missNanos;
+
+  public LookupCache(int capacity, Eviction eviction) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1");
+    }
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true);
+    this.sketch = eviction == Eviction.TINY_LFU ? new FrequencySketch(capacity) : null;
+  }
+
+  /**
+   * @return The cached record, loaded (and possibly admitted) if there is none
+   */
+  public Lookup get(long checkId, LongFunction<Lookup> loader) {
+    if (sketch != null) {
+      sketch.increment(checkId);
+    }
+    Lookup cached = entries.get(checkId);
+    if (cached != null) {
+      ++hits;
+      return cached;
+    }
+    ++misses;
+    long start = System.nanoTime();
+    Lookup loaded = loader.apply(checkId);
+    missNanos += System.nanoTime() - start;
+    if (entries.size() < capacity) {
+      entries.put(checkId, loaded);
+      return loaded;
+    }
+    Iterator<Long> eldest = entries.keySet().iterator();
+    long victim = eldest.next();
+    if (sketch == null || sketch.frequency(checkId) > sketch.frequency(victim)) {
+      eldest.remove();
+      entries.put(checkId, loaded);
+    }
+    return loaded;
+  }
+
+  /**
+   * Drops the record after it has been written, the next read loads it again
+   */
+  public void invalidate(long checkId) {
+    entries.remove(checkId);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long hits() {
+    return hits;
+  }
+
+  public long misses() {
+    return misses;
+  }
+
+  /**
+   * @return The time spent in the loader, i.e. in the database
+   */
+  public long missNanos() {
+    return missNanos;
+  }
+
+  /**
+   * Resets the statistics, the entries stay
+   */
+  public void resetStatistics() {
+    hits = misses = missNanos = 0;
+  }
+
+  /**
+   * Count-min sketch of 4 rows with counters up to 15, like the 4 bit counters of TinyLFU
+   */
+  private static final class FrequencySketch {
+    private static final int ROWS = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final int[] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    private FrequencySketch(int capacity) {
+      int width = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1);
+      this.counters = new int[ROWS * width];
+      this.mask = width - 1;
+      this.sampleSize = 10 * capacity;
+    }
+
+    void increment(long key) {
+      for (int row = 0; row < ROWS; ++row) {
+        int index = index(key, row);
+        if (counters[index] < MAX_COUNT) {
+          ++counters[index];
+        }
+      }
+      if (++additions >= sampleSize) {
+        for (int i = 0; i < counters.length; ++i) {
+          counters[i] >>>= 1;
+        }
+        additions /= 2;
+      }
+    }
+
+    int frequency(long key) {
+      int frequency = MAX_COUNT;
+      for (int row = 0; row < ROWS; ++row) {
+        frequency = Math.min(frequency, counters[index(key, row)]);
+      }
+      return frequency;
+    }
+
+    private int index(long key, int row) {
+      long hash = (key ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+      hash = (hash ^ (hash >>> 29)) * 0x94D049BB133111EBL;
+      hash ^= hash >>> 32;
+      return row * (mask + 1) + (int) (hash & mask);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Like {@link LatencyCounters}, but separately for the reads and the writes (inserts and updates) of the mixed workload. JMH gets the
+ * number of reads and writes as secondary results {@code benchmarkMixed:reads} and {@code benchmarkMixed:writes}, normalized to the
+ * benchmark mode. The percentiles in ms are appended to {@code build/mixed_latencies.csv} per measurement iteration instead.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class MixedLatencyCounters {
+  private static final double NANOS_PER_MS = 1_000_000d;
+
+  public long reads;
+  public long writes;
+  double readP99;
+  double writeP99;
+  private final IterationReport report = new IterationReport("mixed_latencies");
+
+  @Setup(Level.Iteration)
+  public void reset(BenchmarkParams benchmarkParams, IterationParams iterationParams, ThreadParams threadParams) {
+    report.startIteration(benchmarkParams, iterationParams, threadParams);
+    readP99 = writeP99 = 0;
+    reads = writes = 0;
+  }
+
+  /**
+   * @param readHistogram latencies in ns
+   * @param writeHistogram latencies in ns
+   */
+  void update(Histogram readHistogram, Histogram writeHistogram) {
+    reads = readHistogram.getTotalCount();
+    writes = writeHistogram.getTotalCount();
+    readP99 = readHistogram.getValueAtPercentile(99) / NANOS_PER_MS;
+    writeP99 = writeHistogram.getValueAtPercentile(99) / NANOS_PER_MS;
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("reads", reads);
+    row.put("readP50", readHistogram.getValueAtPercentile(50) / NANOS_PER_MS);
+    row.put("readP99", readP99);
+    row.put("readP99_9", readHistogram.getValueAtPercentile(99.9) / NANOS_PER_MS);
+    row.put("readMax", readHistogram.getMaxValue() / NANOS_PER_MS);
+    row.put("writes", writes);
+    row.put("writeP50", writeHistogram.getValueAtPercentile(50) / NANOS_PER_MS);
+    row.put("writeP99", writeP99);
+    row.put("writeP99_9", writeHistogram.getValueAtPercentile(99.9) / NANOS_PER_MS);
+    row.put("writeMax", writeHistogram.getMaxValue() / NANOS_PER_MS);
+    report.append(row);
+  }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.SneakyThrows;
+import org.HdrHistogram.Recorder;
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * YCSB-like mixed workload: {@link #clientThreads} clients (each with its own connection) execute operations in a loop of their own
+ * during the whole iteration ({@link ClientLoops}), each a read by check-id, an insert of a new record or an update of
+ * {@code archivedAt} of an existing record according to the {@link #mix}. One benchmark invocation is one completed operation of any
+ * client, the latencies of reads and writes are recorded separately.
+ *
+ * Inserted records are the ones following the dataset (see {@link WriteState}), updated records get their original {@code archivedAt}
+ * back. Both happens after every iteration, so the dataset is unchanged for the next iteration or trial.
+ *
+ * Every runner has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete runner into the
+ * setup methods.
+ *
+ * @param <T> The database-type of the runner
+ */
+public abstract class MixedWorkloadState<T extends AutoCloseable> {
+  private static final Logger LOG = LoggerFactory.getLogger(MixedWorkloadState.class);
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  /**
+   * Percentages of {@code read/insert/update}, have to sum up to 100
+   */
+  @Param({"95/5/0", "50/50/0", "50/0/50"})
+  public String mix;
+
+  @Param({"16"})
+  public int clientThreads;
+
+  @Param({"PLATFORM"})
+  public ThreadType threadType;
+
+  private BenchmarkBaseline<T> runner;
+  private int readPercent;
+  private int insertPercent;
+  private List<T> connections;
+  private ClientLoops clients;
+  private final Recorder readLatencies = new Recorder(SIGNIFICANT_DIGITS);
+  private final Recorder writeLatencies = new Recorder(SIGNIFICANT_DIGITS);
+  private final AtomicLong nextIndex = new AtomicLong();
+  private final Set<Integer> updated = ConcurrentHashMap.newKeySet();
+
+  protected void start(BenchmarkBaseline<T> runner) {
+    String[] percentages = mix.split("/");
+    if (percentages.length != 3) {
+      throw new IllegalArgumentException("Mix has to be read/insert/update, not " + mix);
+    }
+    this.readPercent = Integer.parseInt(percentages[0]);
+    this.insertPercent = Integer.parseInt(percentages[1]);
+    if (readPercent + insertPercent + Integer.parseInt(percentages[2]) != 100) {
+      throw new IllegalArgumentException("Mix " + mix + " doesn't sum up to 100");
+    }
+    LOG.info("Opening {} connections for a mixed workload of {} (read/insert/update)", clientThreads, mix);
+    this.runner = runner;
+    this.connections = new ArrayList<>(clientThreads);
+    List<Runnable> operations = new ArrayList<>(clientThreads);
+    for (int i = 0; i < clientThreads; ++i) {
+      T connection = runner.createDatabaseConnection();
+      connections.add(connection);
+      operations.add(() -> execute(connection));
+    }
+    this.clients = new ClientLoops(threadType, operations);
+    this.nextIndex.set(runner.documentCount);
+  }
+
+  protected void startIteration() {
+    readLatencies.getIntervalHistogram(); // drop everything recorded in between iterations
+    writeLatencies.getIntervalHistogram();
+    clients.start();
+  }
+
+  /**
+   * Waits for the next operation of any client
+   */
+  public void awaitOperation() {
+    clients.awaitOperation();
+  }
+
+  /**
+   * Records are generated before the latency is taken, it is still part of the operation.
+   */
+  private void execute(T connection) {
+    var random = ThreadLocalRandom.current();
+    int dice = random.nextInt(100);
+    if (dice < readPercent) {
+      long checkId = runner.getRandomCheckId();
+      long start = System.nanoTime();
+      runner.readByCheckId(connection, checkId);
+      readLatencies.recordValue(System.nanoTime() - start);
+      return;
+    }
+    Lookup record;
+    long start;
+    if (dice < readPercent + insertPercent) {
+      record = runner.generateRecord(nextIndex.getAndIncrement());
+      start = System.nanoTime();
+      runner.insertDocuments(connection, List.of(record));
+    } else {
+      int index = random.nextInt(runner.documentCount);
+      record = runner.generateRecord(index);
+      updated.add(index);
+      start = System.nanoTime();
+      runner.updateArchivedAt(connection, record.id, DatabaseRecordsGenerator.REFERENCE_TIME.plusSeconds(index));
+    }
+    writeLatencies.recordValue(System.nanoTime() - start);
+  }
+
+  /**
+   * Stops the clients, publishes the latencies of the iteration and restores the dataset.
+   */
+  protected void finishIteration(MixedLatencyCounters counters) {
+    clients.stop();
+    counters.update(readLatencies.getIntervalHistogram(), writeLatencies.getIntervalHistogram());
+    LOG.info("{} reads with p99 {} ms, {} writes with p99 {} ms", counters.reads, counters.readP99, counters.writes, counters.writeP99);
+    T connection = connections.get(0);
+    LOG.info("Deleting {} inserted and restoring {} updated records", nextIndex.get() - runner.documentCount, updated.size());
+    runner.deleteGenerated(connection, runner.documentCount, nextIndex.get());
+    nextIndex.set(runner.documentCount);
+    for (int index : updated) {
+      Lookup original = runner.generateRecord(index);
+      runner.updateArchivedAt(connection, original.id, original.archivedAt);
+    }
+    updated.clear();
+  }
+
+  @SneakyThrows
+  protected void stop() {
+    for (T connection : connections) {
+      connection.close();
+    }
+    LOG.info("{} client connections closed", connections.size());
+  }
+}
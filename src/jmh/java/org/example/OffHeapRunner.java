@@ -0,0 +1,368 @@
+package org.example;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lower bound of every benchmark: the records live in an {@link OffHeapLookupStore} in the benchmark JVM, no network, no driver, no
+ * query planning. The store lives as long as the fork, which is one trial ({@code @Fork(1)}), so every trial starts with an empty store
+ * and fills all of {@code documentCount}, growth mode has nothing to carry over.
+ */
+public class OffHeapRunner extends BenchmarkBaseline<OffHeapRunner.Client> {
+  private static final int EXPECTED_RECORDS = 1_000_000;
+  private static OffHeapLookupStore store;
+
+  /**
+   * What the other runners' connection is, all clients share the same store
+   */
+  public static class Client implements AutoCloseable {
+    final OffHeapLookupStore store;
+
+    Client(OffHeapLookupStore store) {
+      this.store = store;
+    }
+
+    @Override
+    public void close() {
+      // the store outlives the clients
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class OffHeapReadState extends RandomCheckIdHolder {
+    OffHeapLookupStore store;
+
+    @Setup(Level.Invocation)
+    public void setup(OffHeapRunner runner) {
+      this.store = runner.database.store;
+      this.randomCheckId = runner.getRandomCheckId();
+    }
+  }
+
+  @Benchmark
+  public void benchmarkRead(OffHeapReadState state, Blackhole bl) {
+    Lookup lookup = state.store.findByCheckId(state.randomCheckId);
+    if (lookup == null || (Long) lookup.identifiers.get("CHECK_ID") != state.randomCheckId) {
+      throw new IllegalStateException("Record not found!");
+    }
+    bl.consume(lookup);
+  }
+
+  @State(Scope.Thread)
+  public static class OffHeapConcurrentReadState extends ConcurrentReadState<Client> {
+    @Setup(Level.Trial)
+    public void setup(OffHeapRunner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(LatencyCounters counters) {
+      finishIteration(counters);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+      stop();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public void benchmarkConcurrentRead(OffHeapConcurrentReadState state, LatencyCounters latencies) {
+    state.awaitRead();
+  }
+
+  @State(Scope.Thread)
+  public static class OffHeapOpenLoopReadState extends OpenLoopReadState<Client> {
+    @Setup(Level.Trial)
+    public void setup(OffHeapRunner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(LatencyCounters counters) {
+      finishIteration(counters);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+      stop();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public void benchmarkOpenLoopRead(OffHeapOpenLoopReadState state, LatencyCounters counters) {
+    state.issueRead();
+  }
+
+  @State(Scope.Thread)
+  public static class OffHeapWriteState extends WriteState<Client> {
+    @Setup(Level.Trial)
+    public void setup(OffHeapRunner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(LatencyCounters latencies, WriteCounters counters) {
+      finishIteration(latencies, counters);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+      stop();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+  public void benchmarkWrite(OffHeapWriteState state, WriteCounters counters, LatencyCounters latencies) {
+    counters.rows += state.awaitBatch();
+  }
+
+  @State(Scope.Thread)
+  public static class OffHeapQueryState extends QueryState<Client> {
+    @Setup(Level.Invocation)
+    public void setup(OffHeapRunner runner) {
+      nextQuery(runner);
+    }
+  }
+
+  @Benchmark
+  public void benchmarkQuery(OffHeapQueryState state, ResultCounters counters, Blackhole bl) {
+    List<Lookup> result = state.execute();
+    counters.rows += result.size();
+    bl.consume(result);
+  }
+
+  @State(Scope.Thread)
+  public static class OffHeapMixedWorkloadState extends MixedWorkloadState<Client> {
+    @Setup(Level.Trial)
+    public void setup(OffHeapRunner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(MixedLatencyCounters counters) {
+      finishIteration(counters);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+      stop();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public void benchmarkMixed(OffHeapMixedWorkloadState state, MixedLatencyCounters counters) {
+    state.awaitOperation();
+  }
+
+  @State(Scope.Thread)
+  public static class OffHeapLifecycleState extends LifecycleState<Client> {
+    @Setup(Level.Trial)
+    public void setup(OffHeapRunner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void before() {
+      measureBefore();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(LifecycleCounters counters) {
+      finishIteration(counters);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 3)
+  public void benchmarkLifecycle(OffHeapLifecycleState state, LifecycleCounters counters) {
+    state.execute();
+  }
+
+  @State(Scope.Thread)
+  public static class OffHeapScanState extends ScanState<Client> {
+    @Setup(Level.Trial)
+    public void setup(OffHeapRunner runner) {
+      start(runner);
+    }
+
+    @Setup(Level.Iteration)
+    public void before() {
+      startIteration();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finish(ScanCounters counters) {
+      finishIteration(counters);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public void benchmarkScan(OffHeapScanState state, ScanCounters counters, Blackhole bl) {
+    bl.consume(state.execute(bl::consume));
+  }
+
+  @Override
+  protected Object readByCheckId(Client client, long checkId) {
+    Lookup lookup = client.store.findByCheckId(checkId);
+    if (lookup == null || (Long) lookup.identifiers.get("CHECK_ID") != checkId) {
+      throw new IllegalStateException("Record not found!");
+    }
+    return lookup;
+  }
+
+  @Override
+  protected Lookup readLookupByCheckId(Client client, long checkId) {
+    return (Lookup) readByCheckId(client, checkId);
+  }
+
+  /**
+   * The store has neither a cursor nor an order by {@code archivalId}, it scans in the order the records were appended: {@code CURSOR}
+   * in one pass under the read lock, {@code KEYSET} in pages continuing at the offset after the previous page and {@code OFFSET} in
+   * pages walking the records of the previous pages again.
+   */
+  @Override
+  protected long scan(Client client, ScanStrategy strategy, int fetchSize, Consumer<Lookup> consumer) {
+    var count = new AtomicLong();
+    Consumer<Lookup> counting = lookup -> {
+      count.incrementAndGet();
+      consumer.accept(lookup);
+    };
+    switch (strategy) {
+      case CURSOR -> client.store.scan(0, Integer.MAX_VALUE, counting);
+      case KEYSET -> {
+        long offset = 0;
+        while (offset != -1) {
+          offset = client.store.scan(offset, fetchSize, counting);
+        }
+      }
+      case OFFSET -> {
+        long page;
+        do {
+          long skip = count.get();
+          var seen = new AtomicLong();
+          client.store.scan(0, Math.toIntExact(skip + fetchSize), lookup -> {
+            if (seen.incrementAndGet() > skip) {
+              counting.accept(lookup);
+            }
+          });
+          page = count.get() - skip;
+        } while (page == fetchSize);
+      }
+    }
+    return count.get();
+  }
+
+  @Override
+  protected void updateArchivedAt(Client client, String id, Instant archivedAt) {
+    client.store.updateArchivedAt(id, archivedAt);
+  }
+
+  @Override
+  protected List<Lookup> query(Client client, Query query) {
+    return switch (query.shape) {
+      case USER_ID, PROFILE_ID -> client.store.findByIdentifier(query.identifier, query.value, false);
+      case NOT_ARCHIVED_USER_ID -> client.store.findByIdentifier(query.identifier, query.value, true);
+      case CREATED_AT_RANGE -> client.store.findCreatedBetween(query.from, query.to, Query.LIMIT);
+    };
+  }
+
+  @Override
+  @SneakyThrows
+  protected Client createDatabaseConnection() {
+    synchronized (OffHeapRunner.class) {
+      if (store == null) {
+        store = OffHeapLookupStore.create(EXPECTED_RECORDS);
+      }
+      return new Client(store);
+    }
+  }
+
+  @Override
+  protected void insertDocuments(Client client, List<Lookup> records) {
+    client.store.insert(records);
+  }
+
+  @Override
+  protected void deleteDocuments(Client client, List<Lookup> records) {
+    records.forEach(r -> client.store.delete(r.id));
+  }
+
+  @Override
+  protected String ingestStrategy() {
+    return "APPEND";
+  }
+
+  @Override
+  protected void truncate() {
+    database.store.clear();
+  }
+
+  /**
+   * Hash indexes don't degrade, there is nothing to rebuild
+   */
+  @Override
+  protected void rebuildIndex() {
+  }
+
+  @Override
+  protected long countDocuments() {
+    return database.store.size();
+  }
+
+  /**
+   * The arena is the table, the hash indexes are on the heap; there is no cache in front of memory
+   */
+  @Override
+  protected DatabaseStats collectStats(long checkId) {
+    var stats = new DatabaseStats();
+    stats.rows = database.store.size();
+    stats.tableBytes = database.store.recordBytes();
+    stats.indexBytes = database.store.indexBytes();
+    stats.plan = "hash index on CHECK_ID";
+    return stats;
+  }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.SneakyThrows;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Open-loop load generator: reads are issued at a fixed {@link #targetRate} no matter how fast the database answers. Every read is
+ * executed by one of {@link #clientThreads} clients (each with its own connection) and its latency is measured from the point in time
+ * the read <i>should</i> have been issued. A database that falls behind therefore shows up with growing queueing times instead of
+ * silently lowering the load (coordinated omission).
+ *
+ * Every runner has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete runner into the
+ * setup methods.
+ *
+ * @param <T> The database-type of the runner
+ */
+public abstract class OpenLoopReadState<T extends AutoCloseable> {
+  private static final Logger LOG = LoggerFactory.getLogger(OpenLoopReadState.class);
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final long DRAIN_TIMEOUT_SECONDS = 10;
+
+  /**
+   * Reads per second
+   */
+  @Param({"1000"})
+  public int targetRate;
+
+  @Param({"16"})
+  public int clientThreads;
+
+  @Param({"PLATFORM"})
+  public ThreadType threadType;
+
+  private BenchmarkBaseline<T> runner;
+  private BlockingQueue<T> connections;
+  private ExecutorService executor;
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+  private long intervalNanos;
+  private long nextStart;
+
+  protected void start(BenchmarkBaseline<T> runner) {
+    LOG.info("Opening {} connections for an open-loop load of {} reads/s", clientThreads, targetRate);
+    this.runner = runner;
+    this.connections = new ArrayBlockingQueue<>(clientThreads);
+    for (int i = 0; i < clientThreads; ++i) {
+      connections.add(runner.createDatabaseConnection());
+    }
+    this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / targetRate;
+  }
+
+  protected void startIteration() {
+    executor = threadType.newExecutor(clientThreads);
+    recorder.getIntervalHistogram(); // drop everything recorded in between iterations
+    nextStart = System.nanoTime();
+  }
+
+  /**
+   * Waits for the next slot of the schedule and hands the read over to the clients. If the schedule is already behind, the read is
+   * issued immediately, the latency is still measured from its slot.
+   */
+  public void issueRead() {
+    long intendedStart = nextStart;
+    nextStart += intervalNanos;
+    long now;
+    while ((now = System.nanoTime()) < intendedStart) {
+      LockSupport.parkNanos(intendedStart - now);
+    }
+    executor.execute(new Read(intendedStart, runner.getRandomCheckId()));
+  }
+
+  /**
+   * Waits for the outstanding reads and publishes the latencies. Reads that haven't even been started after
+   * {@link #DRAIN_TIMEOUT_SECONDS} are recorded with the time they have waited so far.
+   */
+  @SneakyThrows
+  protected void finishIteration(LatencyCounters counters) {
+    executor.shutdown();
+    if (!executor.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      List<Runnable> dropped = executor.shutdownNow();
+      long now = System.nanoTime();
+      dropped.forEach(r -> recorder.recordValue(now - ((Read) r).intendedStart));
+      LOG.warn("{} reads could not be executed in time, database is saturated at {} reads/s", dropped.size(), targetRate);
+    }
+    Histogram histogram = recorder.getIntervalHistogram();
+    counters.update(histogram);
+    LOG.info("{} reads, p50 {} ms, p99 {} ms, max {} ms", counters.samples, counters.p50, counters.p99, counters.max);
+  }
+
+  @SneakyThrows
+  protected void stop() {
+    for (T connection : connections) {
+      connection.close();
+    }
+  }
+
+  private class Read implements Runnable {
+    private final long intendedStart;
+    private final long checkId;
+
+    Read(long intendedStart, long checkId) {
+      this.intendedStart = intendedStart;
+      this.checkId = checkId;
+    }
+
+    @Override
+    @SneakyThrows
+    public void run() {
+      T connection = connections.take();
+      try {
+        runner.readByCheckId(connection, checkId);
+      } finally {
+        connections.add(connection); // never blocks, but unlike put() it also works for interrupted reads
+        recorder.recordValue(System.nanoTime() - intendedStart);
+      }
+    }
+  }
+}
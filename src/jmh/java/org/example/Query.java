@@ -0,0 +1,83 @@
+package org.example;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parameters of one query of the query workload, see {@link Shape}. Queries are derived from a record of the dataset, so every query
+ * matches at least that record.
+ */
+public class Query {
+  /**
+   * Max number of records of {@link Shape#CREATED_AT_RANGE}
+   */
+  public static final int LIMIT = 100;
+  public static final Duration RANGE = Duration.ofHours(1);
+
+  public enum Shape {
+    /**
+     * All records containing a {@code USER_ID}, multi-valued and shared by ~30 records per 10M
+     */
+    USER_ID,
+    /**
+     * All records containing a {@code PROFILE_ID}, same distribution as {@link #USER_ID}
+     */
+    PROFILE_ID,
+    /**
+     * The first {@link #LIMIT} records with a {@code createdAt} within {@link #RANGE}, ordered by {@code createdAt}
+     */
+    CREATED_AT_RANGE,
+    /**
+     * All records containing a {@code USER_ID} that haven't been archived yet
+     */
+    NOT_ARCHIVED_USER_ID
+  }
+
+  public final Shape shape;
+  /**
+   * Name and value of the identifier, {@code null} for {@link Shape#CREATED_AT_RANGE}
+   */
+  public final String identifier;
+  public final Integer value;
+  /**
+   * Inclusive start and exclusive end of {@link Shape#CREATED_AT_RANGE}, {@code null} otherwise
+   */
+  public final Instant from;
+  public final Instant to;
+
+  private Query(Shape shape, String identifier, Integer value, Instant from, Instant to) {
+    this.shape = shape;
+    this.identifier = identifier;
+    this.value = value;
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * @return A query matching the record, {@code null} if the record lacks what the shape needs (e.g. it has no {@code USER_ID})
+   */
+  public static Query matching(Shape shape, Lookup record) {
+    return switch (shape) {
+      case USER_ID -> byIdentifier(shape, "USER_ID", record);
+      case PROFILE_ID -> byIdentifier(shape, "PROFILE_ID", record);
+      case NOT_ARCHIVED_USER_ID -> record.archivedAt == null ? byIdentifier(shape, "USER_ID", record) : null;
+      case CREATED_AT_RANGE -> new Query(shape, null, null, record.createdAt, record.createdAt.plus(RANGE));
+    };
+  }
+
+  private static Query byIdentifier(Shape shape, String identifier, Lookup record) {
+    var values = (List<?>) record.identifiers.get(identifier);
+    if (values == null) {
+      return null;
+    }
+    var value = (Integer) values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    return new Query(shape, identifier, value, null, null);
+  }
+
+  @Override
+  public String toString() {
+    return shape == Shape.CREATED_AT_RANGE ? shape + " [" + from + ", " + to + ")" : shape + " " + identifier + "=" + value;
+  }
+}
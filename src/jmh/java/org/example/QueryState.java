@@ -0,0 +1,43 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Query workload: one query of the chosen {@link #shape} per invocation via {@link BenchmarkBaseline#database}. The parameters are taken
+ * from a random record of the dataset outside the measurement, so every query returns at least one record.
+ *
+ * Every runner has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete runner into the
+ * setup methods.
+ *
+ * @param <T> The database-type of the runner
+ */
+public abstract class QueryState<T extends AutoCloseable> {
+  @Param({"USER_ID", "PROFILE_ID", "CREATED_AT_RANGE", "NOT_ARCHIVED_USER_ID"})
+  public Query.Shape shape;
+
+  private BenchmarkBaseline<T> runner;
+  Query query;
+
+  protected void nextQuery(BenchmarkBaseline<T> runner) {
+    this.runner = runner;
+    var random = ThreadLocalRandom.current();
+    Query next;
+    do {
+      next = Query.matching(shape, runner.generateRecord(random.nextInt(runner.documentCount)));
+    } while (next == null);
+    this.query = next;
+  }
+
+  /**
+   * @return The records found, at least one
+   */
+  public List<Lookup> execute() {
+    List<Lookup> result = runner.query(runner.database, query);
+    if (result.isEmpty()) {
+      throw new IllegalStateException(query + " returned nothing");
+    }
+    return result;
+  }
+}
@@ -0,0 +1,22 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the single reads of benchmarks that execute more than one read per invocation. JMH reports it as secondary result
+ * {@code :reads} normalized to the benchmark mode, i.e. as reads per time unit or time per read.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ReadCounters {
+  public long reads;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    reads = 0;
+  }
+}
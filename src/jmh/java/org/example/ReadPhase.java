@@ -0,0 +1,23 @@
+package org.example;
+
+/**
+ * Phases of a single read, in the order they happen, see {@link ReadPhaseTimer}.
+ */
+public enum ReadPhase {
+  /**
+   * Sending the query until the driver returns the result set / cursor, i.e. network and the database itself
+   */
+  EXECUTE,
+  /**
+   * Positioning on the first row / document, only more than ~0 if the driver fetches lazily
+   */
+  FETCH,
+  /**
+   * Turning the raw result into a {@link Lookup} (JSON parsing, BSON decoding, collecting the joined rows)
+   */
+  DECODE,
+  /**
+   * Checking that the record is the requested one
+   */
+  VALIDATE
+}
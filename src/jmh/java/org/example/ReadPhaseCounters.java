@@ -0,0 +1,47 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Latency of every {@link ReadPhase} of one iteration, appended to {@code build/read_phases.csv} per measurement iteration (see
+ * {@link IterationReport}), e.g. the column {@code decodeP99}. In microseconds since the phases are a lot shorter than the reads of
+ * {@link LatencyCounters}.
+ */
+@State(Scope.Thread)
+public class ReadPhaseCounters {
+  private static final double NANOS_PER_US = 1_000d;
+
+  private final IterationReport report = new IterationReport("read_phases");
+
+  @Setup(Level.Iteration)
+  public void reset(BenchmarkParams benchmarkParams, IterationParams iterationParams, ThreadParams threadParams) {
+    report.startIteration(benchmarkParams, iterationParams, threadParams);
+  }
+
+  /**
+   * @param histograms latencies in ns, indexed by {@link ReadPhase#ordinal()}
+   */
+  void update(Histogram[] histograms) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    for (ReadPhase phase : ReadPhase.values()) {
+      String name = phase.name().toLowerCase(Locale.ROOT);
+      row.put(name + "P50", percentile(histograms[phase.ordinal()], 50));
+      row.put(name + "P99", percentile(histograms[phase.ordinal()], 99));
+    }
+    report.append(row);
+  }
+
+  private static double percentile(Histogram histogram, double percentile) {
+    return histogram.getValueAtPercentile(percentile) / NANOS_PER_US;
+  }
+}
@@ -0,0 +1,28 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one {@link ReadPhase}, its duration is the one of the phase. Only committed while a recording is running,
+ * e.g. via {@code -prof jfr}, and shown in JDK Mission Control under "Benchmark".
+ */
+@Name("org.example.ReadPhase")
+@Label("Read Phase")
+@Category("Benchmark")
+@Description("One phase of a read by check-id")
+@StackTrace(false)
+public class ReadPhaseEvent extends Event {
+  @Label("Runner")
+  String runner;
+
+  @Label("Phase")
+  String phase;
+
+  @Label("Check-Id")
+  long checkId;
+}
@@ -0,0 +1,83 @@
+package org.example;
+
+import jdk.jfr.EventType;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Splits a read into its {@link ReadPhase}s: {@link #start(long)} before the query, {@link #lap(ReadPhase)} at the end of every phase.
+ * Every phase is recorded into a histogram (published as {@link ReadPhaseCounters}) and, while a flight recording is running, as
+ * {@link ReadPhaseEvent}. Costs two {@link System#nanoTime()} per phase, negligible compared to a database round trip; the event is only
+ * created while a recording has it enabled.
+ */
+@State(Scope.Thread)
+public class ReadPhaseTimer {
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final EventType EVENT_TYPE = EventType.getEventType(ReadPhaseEvent.class);
+
+  private final Histogram[] histograms = new Histogram[ReadPhase.values().length];
+  private String runner;
+  private long checkId;
+  private long phaseStart;
+  private ReadPhaseEvent event;
+
+  @Setup(Level.Trial)
+  public void setup(BenchmarkParams params) {
+    String benchmark = params.getBenchmark();
+    String className = benchmark.substring(0, benchmark.lastIndexOf('.'));
+    this.runner = className.substring(className.lastIndexOf('.') + 1);
+    for (int i = 0; i < histograms.length; ++i) {
+      histograms[i] = new Histogram(SIGNIFICANT_DIGITS);
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    for (Histogram histogram : histograms) {
+      histogram.reset();
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void finish(ReadPhaseCounters counters) {
+    counters.update(histograms);
+  }
+
+  /**
+   * Starts the first phase of the read of the check-id
+   */
+  public void start(long checkId) {
+    this.checkId = checkId;
+    beginPhase();
+  }
+
+  /**
+   * Ends the phase and starts the next one
+   */
+  public void lap(ReadPhase phase) {
+    long now = System.nanoTime();
+    histograms[phase.ordinal()].recordValue(now - phaseStart);
+    if (event != null) {
+      event.runner = runner;
+      event.phase = phase.name();
+      event.checkId = checkId;
+      event.commit();
+    }
+    beginPhase();
+  }
+
+  private void beginPhase() {
+    if (EVENT_TYPE.isEnabled()) {
+      event = new ReadPhaseEvent();
+      event.begin();
+    } else {
+      event = null;
+    }
+    phaseStart = System.nanoTime();
+  }
+}
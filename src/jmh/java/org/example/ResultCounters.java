@@ -0,0 +1,22 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the records returned by the query benchmarks. JMH reports it as secondary result {@code :rows} normalized to the benchmark
+ * mode, i.e. as rows per time unit or time per row.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ResultCounters {
+  public long rows;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    rows = 0;
+  }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * One full scan of {@link ScanState}, appended to {@code build/scan.csv} per measurement iteration (see {@link IterationReport}), e.g.
+ * the column {@code recordsPerSecond}. The primary result is the time of the scan, {@code heapPeakMb} the peak of the client heap
+ * during it (see {@link ScanState#finishIteration(ScanCounters)}).
+ */
+@State(Scope.Thread)
+public class ScanCounters {
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+  private static final double BYTES_PER_MB = 1024d * 1024d;
+
+  long records;
+  double recordsPerSecond;
+  double heapPeakMb;
+  private final IterationReport report = new IterationReport("scan");
+
+  @Setup(Level.Iteration)
+  public void reset(BenchmarkParams benchmarkParams, IterationParams iterationParams, ThreadParams threadParams) {
+    report.startIteration(benchmarkParams, iterationParams, threadParams);
+    records = 0;
+    recordsPerSecond = heapPeakMb = 0;
+  }
+
+  void update(long records, long nanos, long heapPeakBytes) {
+    this.records = records;
+    recordsPerSecond = nanos == 0 ? 0 : records * NANOS_PER_SECOND / nanos;
+    heapPeakMb = heapPeakBytes / BYTES_PER_MB;
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("records", records);
+    row.put("recordsPerSecond", recordsPerSecond);
+    row.put("heapPeakMb", heapPeakMb);
+    report.append(row);
+  }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Full scan of the records like a nightly export: every invocation reads all records via {@link #scan} and hands them to the consumer
+ * one by one, none is kept. Besides the time the peak of the client heap is recorded, which shows whether the strategy streams with
+ * bounded memory or the driver materializes the whole result.
+ *
+ * Every runner has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete runner into the
+ * setup methods.
+ *
+ * @param <T> The database-type of the runner
+ */
+public abstract class ScanState<T extends AutoCloseable> {
+  private static final Logger LOG = LoggerFactory.getLogger(ScanState.class);
+
+  @Param({"CURSOR"})
+  public ScanStrategy scan;
+
+  /**
+   * Records per round trip: the fetch size of the cursor or the size of a page
+   */
+  @Param({"1000"})
+  public int fetchSize;
+
+  private BenchmarkBaseline<T> runner;
+  private long expected;
+  private long scanned;
+  private long scanNanos;
+  private long heapAtStart;
+
+  protected void start(BenchmarkBaseline<T> runner) {
+    this.runner = runner;
+    this.expected = runner.countDocuments();
+  }
+
+  /**
+   * Collects the garbage of the previous iteration and resets the peaks of the heap pools
+   */
+  protected void startIteration() {
+    System.gc();
+    heapAtStart = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    scanned = scanNanos = 0;
+  }
+
+  public long execute(Consumer<Lookup> consumer) {
+    long start = System.nanoTime();
+    scanned = runner.scan(runner.database, scan, fetchSize, consumer);
+    scanNanos = System.nanoTime() - start;
+    if (scanned != expected) {
+      throw new IllegalStateException("Scanned " + scanned + " of " + expected + " records");
+    }
+    return scanned;
+  }
+
+  /**
+   * Publishes the rate and the heap peak of the iteration. The peak is the sum of the peaks of the heap pools, i.e. an upper bound that
+   * includes the garbage collected during the scan, compared to the heap after the GC at the start.
+   */
+  protected void finishIteration(ScanCounters counters) {
+    long peak = heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    counters.update(scanned, scanNanos, peak - heapAtStart);
+    LOG.info("Scanned {} records via {} with fetch size {}: {} records/s, {} MB heap peak", scanned, scan, fetchSize,
+      Math.round(counters.recordsPerSecond), Math.round(counters.heapPeakMb));
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+      .filter(pool -> pool.getType() == MemoryType.HEAP)
+      .toList();
+  }
+}
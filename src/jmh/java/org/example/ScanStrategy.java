@@ -0,0 +1,22 @@
+package org.example;
+
+/**
+ * How {@code benchmarkScan} reads the whole table, {@code -p scan=CURSOR,KEYSET,OFFSET}. The page or batch size is the {@code fetchSize}
+ * of the {@link ScanState}.
+ */
+public enum ScanStrategy {
+  /**
+   * One query, the driver fetches the result in batches: a server-side cursor with {@code setFetchSize} for the JDBC runners (postgres
+   * only within a transaction, mariadb streams with any positive fetch size), a cursor with {@code batchSize} for mongo
+   */
+  CURSOR,
+  /**
+   * One query per page, continuing after the last {@code archival_id} of the previous page
+   */
+  KEYSET,
+  /**
+   * One query per page ordered by {@code archival_id}, skipping the records of the previous pages. The database walks all of them
+   * again, i.e. quadratic, only sensible for the small {@code documentCount}s
+   */
+  OFFSET
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.SneakyThrows;
+
+/**
+ * Kind of threads the simulated clients run on.
+ */
+public enum ThreadType {
+  PLATFORM,
+  /**
+   * Needs a JDK 21+ at runtime. Looked up reflectively since the project is still compiled against 17.
+   */
+  VIRTUAL;
+
+  @SneakyThrows
+  public ExecutorService newExecutor(int threads) {
+    if (this == PLATFORM) {
+      return Executors.newFixedThreadPool(threads);
+    }
+    MethodHandle factory;
+    try {
+      factory = MethodHandles.publicLookup()
+        .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Virtual threads need at least JDK 21, running on " + Runtime.version(), e);
+    }
+    return (ExecutorService) factory.invoke();
+  }
+}
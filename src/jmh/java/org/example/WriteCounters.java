@@ -0,0 +1,37 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Counts the inserted records of the write benchmarks. JMH reports it as secondary result {@code :rows} normalized to the benchmark
+ * mode, i.e. as rows per time unit or time per row. The number of records in the table at the end of every measurement iteration is
+ * appended to {@code build/writes.csv} (see {@link IterationReport}), since the table grows during the iteration.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class WriteCounters {
+  public long rows;
+  private final IterationReport report = new IterationReport("writes");
+
+  @Setup(Level.Iteration)
+  public void reset(BenchmarkParams benchmarkParams, IterationParams iterationParams, ThreadParams threadParams) {
+    report.startIteration(benchmarkParams, iterationParams, threadParams);
+    rows = 0;
+  }
+
+  void update(long inserted, long tableRows) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("inserted", inserted);
+    row.put("tableRows", tableRows);
+    report.append(row);
+  }
+}
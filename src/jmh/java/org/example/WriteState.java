@@ -0,0 +1,110 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.SneakyThrows;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates {@link #writerThreads} writers inserting new records in parallel into the table filled with
+ * {@link BenchmarkBaseline#documentCount} records. Every writer has its own connection and inserts batches of {@link #batchSize}
+ * records via {@link BenchmarkBaseline#insertDocuments(AutoCloseable, List)} in a loop of its own during the whole iteration
+ * ({@link ClientLoops}). One benchmark invocation is one inserted batch of any writer, the latency of every single batch is recorded.
+ *
+ * The records are the ones following the dataset ({@link DatabaseRecordsGenerator#generateRecord(long)} with an index of at least
+ * {@code documentCount}), a writer generates its batch right before the insert, outside the recorded latency. The table grows during
+ * the iteration, its size at the end is reported with {@link WriteCounters}. The records are deleted again after every iteration, so
+ * every iteration (and the next trial in growth mode) starts with exactly {@code documentCount} records.
+ *
+ * Every runner has to extend it with a {@code @State(Scope.Thread)} class since JMH can only inject the concrete runner into the
+ * setup methods.
+ *
+ * @param <T> The database-type of the runner
+ */
+public abstract class WriteState<T extends AutoCloseable> {
+  private static final Logger LOG = LoggerFactory.getLogger(WriteState.class);
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  @Param({"1", "100", "1000"})
+  public int batchSize;
+
+  @Param({"1", "4", "16"})
+  public int writerThreads;
+
+  private BenchmarkBaseline<T> runner;
+  private List<T> connections;
+  private ClientLoops writers;
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+  private final AtomicLong nextIndex = new AtomicLong();
+
+  protected void start(BenchmarkBaseline<T> runner) {
+    LOG.info("Opening {} connections for writers with batches of {} records", writerThreads, batchSize);
+    this.runner = runner;
+    this.connections = new ArrayList<>(writerThreads);
+    List<Runnable> writes = new ArrayList<>(writerThreads);
+    for (int i = 0; i < writerThreads; ++i) {
+      T connection = runner.createDatabaseConnection();
+      connections.add(connection);
+      writes.add(() -> {
+        long first = nextIndex.getAndAdd(batchSize);
+        List<Lookup> batch = new ArrayList<>(batchSize);
+        for (int j = 0; j < batchSize; ++j) {
+          batch.add(runner.generateRecord(first + j));
+        }
+        long start = System.nanoTime();
+        runner.insertDocuments(connection, batch);
+        recorder.recordValue(System.nanoTime() - start);
+      });
+    }
+    this.writers = new ClientLoops(ThreadType.PLATFORM, writes);
+    this.nextIndex.set(runner.documentCount);
+  }
+
+  protected void startIteration() {
+    recorder.getIntervalHistogram(); // drop everything recorded in between iterations
+    writers.start();
+  }
+
+  /**
+   * Waits for the next batch of any writer.
+   *
+   * @return The number of records that have been inserted
+   */
+  public int awaitBatch() {
+    writers.awaitOperation();
+    return batchSize;
+  }
+
+  /**
+   * Stops the writers, publishes the batch latencies and the table size of the iteration and deletes the records written in it.
+   */
+  protected void finishIteration(LatencyCounters latencies, WriteCounters counters) {
+    writers.stop();
+    Histogram histogram = recorder.getIntervalHistogram();
+    latencies.update(histogram);
+    long inserted = nextIndex.get() - runner.documentCount;
+    counters.update(inserted, runner.documentCount + inserted);
+    LOG.info("{} batches, p50 {} ms, p99 {} ms, max {} ms, {} records in the table at the end", latencies.samples, latencies.p50,
+      latencies.p99, latencies.max, runner.documentCount + inserted);
+    deleteWritten();
+  }
+
+  private void deleteWritten() {
+    LOG.info("Deleting the {} records written during the iteration", nextIndex.get() - runner.documentCount);
+    runner.deleteGenerated(connections.get(0), runner.documentCount, nextIndex.get());
+    nextIndex.set(runner.documentCount);
+  }
+
+  @SneakyThrows
+  protected void stop() {
+    for (T connection : connections) {
+      connection.close();
+    }
+    LOG.info("{} writer connections closed", connections.size());
+  }
+}
@@ -1,80 +1,118 @@
 package org.example;
 
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Generates the lookups to be inserted. Every record is a pure function of the {@link #SEED} and its index (archival-id - 1), so the
+ * records can be generated by any number of threads in any order and every run and every database gets exactly the same data.
+ */
 public class DatabaseRecordsGenerator {
 
-  protected static final ThreadLocalRandom randomizer = ThreadLocalRandom.current();
+  /**
+   * Can be changed via {@code -Dbenchmark.seed=...}
+   */
+  protected static final long SEED = Long.getLong("benchmark.seed", 4711L);
+  // All timestamps are relative to this instead of Instant.now() to keep the data reproducible
+  protected static final Instant REFERENCE_TIME = Instant.parse("2023-04-20T00:00:00Z");
+  private static final long MIN_ID = 10_000_000;
+  // Ids have up to 9 digits, enough unique ids for 990M records
+  private static final long ID_RANGE = 990_000_000;
+  private static final int IDENTIFIER_BUCKETS = 5;
+  private static final int IDENTIFIER_BUCKET_SIZE = 100_000;
 
-  protected final TreeSet<Long> uniqueCalcReqIds = new TreeSet<>();
-  protected final TreeSet<Long> uniqueCheckIds = new TreeSet<>();
-  // Faster access for benchmark but might let the heap explode
-  // Get a random element from that should be O(1)
-  protected ArrayList<Long> uniqueCheckIdsList;
+  private static final IdPermutation calcReqIds = new IdPermutation(ID_RANGE, SEED);
+  private static final IdPermutation checkIds = new IdPermutation(ID_RANGE, ~SEED);
 
-  protected final AtomicLong archivalId = new AtomicLong(1L);
+  // All check-ids of the database by index, a random element can be picked in O(1) without boxing
+  protected long[] checkIdPool = new long[0];
+  protected int checkIdPoolSize;
+  private KeyDistribution keyDistribution;
 
-  protected Lookup generateRecord() {
-    return new Lookup(
-      String.format("common_rules_executor_-=-_%d_-=-_CALCULATION_REQUEST", uniqueCrId()),
-      archivalId.getAndIncrement(),
-      randomizer.nextInt(0, 5) >= 2 ? Instant.now() : null,
-      Instant.now().minusSeconds(randomizer.nextLong(100000L, 999999L)),
-      Instant.now().minusSeconds(randomizer.nextLong(100000L, 999999L)),
-      randomIdentifiers());
+  /**
+   * Makes the check-ids of the records {@code [0, recordCount)} available for {@link #getRandomCheckId()}.
+   */
+  protected void fillCheckIdPool(int recordCount) {
+    if (checkIdPool.length < recordCount) {
+      checkIdPool = new long[recordCount];
+    }
+    for (int i = 0; i < recordCount; ++i) {
+      checkIdPool[i] = checkIdOf(i);
+    }
+    checkIdPoolSize = recordCount;
+    keyDistribution = KeyDistribution.uniform(recordCount);
   }
 
-  protected Long getRandomCheckId() {
-    return uniqueCheckIdsList.get(randomizer.nextInt(uniqueCheckIdsList.size()));
+  /**
+   * Uses the given check-ids, e.g. of a {@link DatasetSnapshot}, for {@link #getRandomCheckId()}.
+   */
+  protected void useCheckIdPool(long[] checkIds) {
+    checkIdPool = checkIds;
+    checkIdPoolSize = checkIds.length;
+    keyDistribution = KeyDistribution.uniform(checkIds.length);
   }
 
-  private Map<String, Object> randomIdentifiers() {
-    final var map = new HashMap<String, Object>();
-    var profileIds = Set.of(
-      randomizer.nextInt(1, 100000),
-      randomizer.nextInt(100001, 200000),
-      randomizer.nextInt(200001, 300000),
-      randomizer.nextInt(300001, 400000),
-      randomizer.nextInt(400001, 500000));
-    var userIds = Set.of(
-      randomizer.nextInt(1, 100000),
-      randomizer.nextInt(100001, 200000),
-      randomizer.nextInt(200001, 300000),
-      randomizer.nextInt(300001, 400000),
-      randomizer.nextInt(400001, 500000));
-
-    map.put("CHECK_ID", uniqueCheckId());
-    if (randomizer.nextInt(0, 5) >= 2) {
-      map.put("PROFILE_ID", profileIds.stream().limit(randomizer.nextLong(1, profileIds.size())).toList());
-    }
-    if (randomizer.nextInt(0, 5) >= 2) {
-      map.put("USER_ID", userIds.stream().limit(randomizer.nextLong(1, userIds.size())).toList());
-    }
+  /**
+   * Picks the check-ids of {@link #getRandomCheckId()} by the {@link KeyDistribution} of the spec instead of uniformly, needs the pool
+   * to be filled already.
+   */
+  protected void useKeyDistribution(String spec) {
+    keyDistribution = KeyDistribution.parse(spec, checkIdPoolSize, SEED);
+  }
 
-    return map;
+  protected Lookup generateRecord(long index) {
+    var random = new SplittableRandom(SEED ^ (index * 0x9E3779B97F4A7C15L));
+    boolean archived = random.nextInt(0, 5) >= 2;
+    Instant createdAt = REFERENCE_TIME.minusSeconds(random.nextLong(100000L, 999999L));
+    Instant timestamp = REFERENCE_TIME.minusSeconds(random.nextLong(100000L, 999999L));
+    return new Lookup(
+      "common_rules_executor_-=-_" + (MIN_ID + calcReqIds.apply(index)) + "_-=-_CALCULATION_REQUEST",
+      index + 1,
+      archived ? REFERENCE_TIME : null,
+      createdAt,
+      timestamp,
+      identifiers(index, random));
   }
 
-  private Long uniqueCrId() {
-    return computeUniqueId(uniqueCalcReqIds);
+  protected static long checkIdOf(long index) {
+    return MIN_ID + checkIds.apply(index);
   }
 
-  private Long uniqueCheckId() {
-    return computeUniqueId(uniqueCheckIds);
+  protected long getRandomCheckId() {
+    return checkIdPool[keyDistribution.next(ThreadLocalRandom.current())];
   }
 
-  private Long computeUniqueId(TreeSet<Long> set) {
-    Long uniqueId;
-    do {
-      uniqueId = randomizer.nextLong(10_000_000, 99_999_999);
-    } while (!set.add(uniqueId));
+  private static Map<String, Object> identifiers(long index, SplittableRandom random) {
+    final var map = new HashMap<String, Object>(4);
+    map.put("CHECK_ID", checkIdOf(index));
+    // Always draw both to keep the sequence of the random independent of the branches
+    List<Integer> profileIds = bucketIds(random);
+    List<Integer> userIds = bucketIds(random);
+    if (random.nextInt(0, 5) >= 2) {
+      map.put("PROFILE_ID", profileIds);
+    }
+    if (random.nextInt(0, 5) >= 2) {
+      map.put("USER_ID", userIds);
+    }
 
-    return uniqueId;
+    return map;
+  }
+
+  /**
+   * @return 1 to 4 ids out of distinct buckets of {@link #IDENTIFIER_BUCKET_SIZE}
+   */
+  private static List<Integer> bucketIds(SplittableRandom random) {
+    var ids = new Integer[random.nextInt(1, IDENTIFIER_BUCKETS)];
+    int firstBucket = random.nextInt(IDENTIFIER_BUCKETS);
+    for (int i = 0; i < ids.length; ++i) {
+      int bucket = (firstBucket + i) % IDENTIFIER_BUCKETS;
+      ids[i] = random.nextInt(bucket * IDENTIFIER_BUCKET_SIZE + 1, (bucket + 1) * IDENTIFIER_BUCKET_SIZE);
+    }
+    return Arrays.asList(ids);
   }
 }
@@ -0,0 +1,185 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A dataset generated once by {@link DatabaseRecordsGenerator} and stored in a compact binary file, so all runners can be filled with
+ * byte-identical data without generating it again. The file is read via memory-mapped windows, which makes loading I/O-bound.
+ *
+ * Layout (big endian): header {@code magic, version, seed, recordCount}, followed by the records as written by {@link LookupCodec}.
+ *
+ * Usage: {@code DatasetSnapshot <file> <recordCount>}
+ */
+public class DatasetSnapshot implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(DatasetSnapshot.class);
+  private static final int MAGIC = 0x4C4B5550; // LKUP
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+  private static final long WINDOW_BYTES = 1L << 28;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final long seed;
+  private final long recordCount;
+
+  private DatasetSnapshot(Path file, FileChannel channel, long seed, long recordCount) {
+    this.file = file;
+    this.channel = channel;
+    this.seed = seed;
+    this.recordCount = recordCount;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: DatasetSnapshot <file> <recordCount>");
+      System.exit(1);
+    }
+    write(Path.of(args[0]), Long.parseLong(args[1]));
+  }
+
+  /**
+   * Generates the records {@code [0, recordCount)} with the current {@link DatabaseRecordsGenerator#SEED} into the file.
+   */
+  public static void write(Path file, long recordCount) throws IOException {
+    LOG.info("Writing {} records with seed {} to {}", recordCount, DatabaseRecordsGenerator.SEED, file);
+    var generator = new DatabaseRecordsGenerator();
+    long progressNumber = Math.max(50, recordCount / 100);
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    var record = ByteBuffer.allocate(LookupCodec.MAX_BYTES);
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(DatabaseRecordsGenerator.SEED);
+      out.writeLong(recordCount);
+      for (long i = 0; i < recordCount; ++i) {
+        LookupCodec.write(record.clear(), generator.generateRecord(i));
+        out.write(record.array(), 0, record.position());
+        if (i > 0 && i % progressNumber == 0) {
+          LOG.info("{}/{} records written", i, recordCount);
+        }
+      }
+    }
+    LOG.info("{} records written, {} bytes", recordCount, Files.size(file));
+  }
+
+  public static DatasetSnapshot open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+    if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+      channel.close();
+      throw new IllegalArgumentException(file + " is not a dataset snapshot of version " + VERSION);
+    }
+    return new DatasetSnapshot(file, channel, header.getLong(), header.getLong());
+  }
+
+  public long seed() {
+    return seed;
+  }
+
+  public long recordCount() {
+    return recordCount;
+  }
+
+  /**
+   * @return A new cursor positioned at the first record. Cursors are not thread-safe, but any number of them can be used in parallel.
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * @return The check-ids of the first {@code count} records, without materializing the records
+   */
+  public long[] checkIds(int count) {
+    if (count > recordCount) {
+      throw new IllegalArgumentException(file + " only contains " + recordCount + " records, " + count + " requested");
+    }
+    var ids = new long[count];
+    var cursor = cursor();
+    for (int i = 0; i < count; ++i) {
+      ids[i] = cursor.nextCheckId();
+    }
+    return ids;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Reads the records one after another through a window of {@link #WINDOW_BYTES} that is mapped again when the next record might not
+   * fit into it anymore.
+   */
+  public class Cursor {
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long read;
+
+    private Cursor() {
+      map(HEADER_BYTES);
+    }
+
+    public boolean hasNext() {
+      return read < recordCount;
+    }
+
+    public Lookup next() {
+      ensureRecordFits();
+      ++read;
+      return LookupCodec.read(window);
+    }
+
+    public void skip(long count) {
+      for (long i = 0; i < count; ++i) {
+        nextCheckId();
+      }
+    }
+
+    private long nextCheckId() {
+      ensureRecordFits();
+      ++read;
+      return LookupCodec.readCheckId(window);
+    }
+
+    private void ensureRecordFits() {
+      if (!hasNext()) {
+        throw new IllegalStateException("All " + recordCount + " records of " + file + " have been read");
+      }
+      long position = windowStart + window.position();
+      if (window.remaining() < LookupCodec.MAX_BYTES && windowStart + window.limit() < fileSize()) {
+        map(position);
+      }
+    }
+
+    private void map(long position) {
+      try {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, fileSize() - position));
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not map " + file, e);
+      }
+    }
+
+    private long fileSize() {
+      try {
+        return channel.size();
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not read " + file, e);
+      }
+    }
+  }
+}
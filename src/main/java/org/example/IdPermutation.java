@@ -0,0 +1,60 @@
+package org.example;
+
+import java.util.SplittableRandom;
+
+/**
+ * Keyed pseudo-random permutation of {@code [0, size)}: a small Feistel network over the next even number of bits, walking the cycle
+ * until the value is within the range again. Maps every index to a unique, random looking id without having to remember the ids that
+ * have been handed out, so it works from any number of threads and always returns the same mapping for the same seed.
+ */
+public class IdPermutation {
+  private static final int ROUNDS = 4;
+
+  private final long size;
+  private final int halfBits;
+  private final long halfMask;
+  private final long[] keys;
+
+  public IdPermutation(long size, long seed) {
+    if (size < 2) {
+      throw new IllegalArgumentException("Size must be at least 2");
+    }
+    int bits = 64 - Long.numberOfLeadingZeros(size - 1);
+    this.size = size;
+    this.halfBits = (bits + 1) / 2;
+    this.halfMask = (1L << halfBits) - 1;
+    this.keys = new SplittableRandom(seed).longs(ROUNDS).toArray();
+  }
+
+  public long apply(long index) {
+    if (index < 0 || index >= size) {
+      throw new IllegalArgumentException("Index " + index + " is not within [0, " + size + ")");
+    }
+    long value = index;
+    do {
+      value = encrypt(value);
+    } while (value >= size);
+    return value;
+  }
+
+  public long size() {
+    return size;
+  }
+
+  private long encrypt(long value) {
+    long left = value >>> halfBits;
+    long right = value & halfMask;
+    for (long key : keys) {
+      long next = left ^ (mix(right ^ key) & halfMask);
+      left = right;
+      right = next;
+    }
+    return (left << halfBits) | right;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+    z = (z ^ (z >>> 33)) * 0xc4ceb93fe1a85ec5L;
+    return z ^ (z >>> 33);
+  }
+}
@@ -0,0 +1,240 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Which record index is read next, out of {@code [0, size)}. Everything depending on the size and the parameters is computed once
+ * (at most a 768KB table, independent of the size of the database), so a sample costs two or three random numbers and a few
+ * arithmetic operations without boxing.
+ * <p>
+ * Specs of {@link #parse(String, int, long)}:
+ * <ul>
+ *   <li>{@code uniform}: every record equally often</li>
+ *   <li>{@code zipf:<exponent>}: the record of rank {@code k} with probability proportional to {@code 1/k^exponent}, the ranks are
+ *   spread over the table so the hot records aren't neighbours (default exponent {@code 0.99})</li>
+ *   <li>{@code hotspot:<x>/<y>}: {@code x}% of the reads on {@code y}% of the records, uniform within both parts (default
+ *   {@code 80/20})</li>
+ *   <li>{@code latest:<exponent>}: zipf over the age, i.e. the most recently inserted (highest {@code archivalId}) records are the
+ *   hottest (default exponent {@code 0.99})</li>
+ * </ul>
+ */
+public abstract class KeyDistribution {
+  private static final double DEFAULT_EXPONENT = 0.99;
+
+  protected final int size;
+
+  protected KeyDistribution(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Size must be at least 1");
+    }
+    this.size = size;
+  }
+
+  /**
+   * @return The next index out of {@code [0, size)}
+   */
+  public abstract int next(Random random);
+
+  public static KeyDistribution uniform(int size) {
+    return new Uniform(size);
+  }
+
+  /**
+   * @param seed Where the hottest rank is, the same seed gives the same hot records
+   */
+  public static KeyDistribution parse(String spec, int size, long seed) {
+    String[] parts = spec.trim().split(":", 2);
+    String argument = parts.length > 1 ? parts[1].trim() : null;
+    return switch (parts[0].trim().toLowerCase()) {
+      case "uniform" -> uniform(size);
+      case "zipf" -> size < 2
+        ? uniform(size)
+        : new Permuted(new Zipf(size, argument == null ? DEFAULT_EXPONENT : Double.parseDouble(argument)), seed);
+      case "hotspot" -> {
+        String[] shares = (argument == null ? "80/20" : argument).split("/");
+        if (shares.length != 2) {
+          throw new IllegalArgumentException("Hotspot has to be <x>/<y>, e.g. hotspot:80/20, but was " + spec);
+        }
+        var hotspot = new Hotspot(size, Double.parseDouble(shares[0]) / 100, Double.parseDouble(shares[1]) / 100);
+        yield size < 2 ? hotspot : new Permuted(hotspot, seed);
+      }
+      case "latest" -> new Latest(new Zipf(size, argument == null ? DEFAULT_EXPONENT : Double.parseDouble(argument)));
+      default -> throw new IllegalArgumentException("Unknown key distribution " + spec + ", expected uniform, zipf, hotspot or latest");
+    };
+  }
+
+  private static final class Uniform extends KeyDistribution {
+    private Uniform(int size) {
+      super(size);
+    }
+
+    @Override
+    public int next(Random random) {
+      return random.nextInt(size);
+    }
+  }
+
+  /**
+   * Rank {@code 0} is the hottest record
+   */
+  private static final class Hotspot extends KeyDistribution {
+    private final double hotReads;
+    private final int hotRecords;
+
+    private Hotspot(int size, double hotReads, double hotRecords) {
+      super(size);
+      if (hotReads < 0 || hotReads > 1 || hotRecords <= 0 || hotRecords >= 1) {
+        throw new IllegalArgumentException("Hotspot needs 0 <= x <= 100 and 0 < y < 100");
+      }
+      this.hotReads = hotReads;
+      this.hotRecords = (int) Math.min(size - 1, Math.max(1, Math.round(size * hotRecords)));
+    }
+
+    @Override
+    public int next(Random random) {
+      return random.nextDouble() < hotReads ? random.nextInt(hotRecords) : hotRecords + random.nextInt(size - hotRecords);
+    }
+  }
+
+  /**
+   * The {@link #HEAD} hottest ranks are drawn exactly from an alias table (Vose), the rest from the continuous power law of the same
+   * exponent, which differs from the discrete one by far less than the noise of a benchmark this far out in the tail. Rank {@code 0} is
+   * the hottest record.
+   */
+  private static final class Zipf extends KeyDistribution {
+    private static final int HEAD = 1 << 16;
+
+    private final double[] probability;
+    private final int[] alias;
+    private final double headShare;
+    private final double oneMinusExponent;
+    private final double tailFrom;
+    private final double tailTo;
+
+    private Zipf(int size, double exponent) {
+      super(size);
+      if (exponent <= 0) {
+        throw new IllegalArgumentException("Zipf exponent must be > 0, but was " + exponent);
+      }
+      int head = Math.min(size, HEAD);
+      var weights = new double[head];
+      double headMass = 0;
+      for (int k = 0; k < head; ++k) {
+        weights[k] = Math.pow(k + 1, -exponent);
+        headMass += weights[k];
+      }
+      this.probability = new double[head];
+      this.alias = new int[head];
+      fillAliasTable(weights, headMass);
+      // the ranks (head, size] as integral of x^-exponent over [head + 0.5, size + 0.5], transformed like tailRank() needs it
+      this.oneMinusExponent = Math.abs(1 - exponent) < 1e-9 ? 0 : 1 - exponent;
+      this.tailFrom = transform(head + 0.5);
+      this.tailTo = transform(size + 0.5);
+      double tailMass = oneMinusExponent == 0 ? tailTo - tailFrom : (tailTo - tailFrom) / oneMinusExponent;
+      this.headShare = headMass / (headMass + tailMass);
+    }
+
+    @Override
+    public int next(Random random) {
+      if (size > HEAD && random.nextDouble() >= headShare) {
+        return tailRank(random.nextDouble());
+      }
+      int column = random.nextInt(probability.length);
+      return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    private void fillAliasTable(double[] weights, double mass) {
+      int n = weights.length;
+      var scaled = new double[n];
+      var small = new int[n];
+      var large = new int[n];
+      int smallCount = 0;
+      int largeCount = 0;
+      for (int i = 0; i < n; ++i) {
+        scaled[i] = weights[i] * n / mass;
+        if (scaled[i] < 1) {
+          small[smallCount++] = i;
+        } else {
+          large[largeCount++] = i;
+        }
+      }
+      while (smallCount > 0 && largeCount > 0) {
+        int less = small[--smallCount];
+        int more = large[--largeCount];
+        probability[less] = scaled[less];
+        alias[less] = more;
+        scaled[more] += scaled[less] - 1;
+        if (scaled[more] < 1) {
+          small[smallCount++] = more;
+        } else {
+          large[largeCount++] = more;
+        }
+      }
+      // only rounding errors left, these are certain
+      while (largeCount > 0) {
+        probability[large[--largeCount]] = 1;
+      }
+      while (smallCount > 0) {
+        probability[small[--smallCount]] = 1;
+      }
+    }
+
+    private double transform(double x) {
+      return oneMinusExponent == 0 ? Math.log(x) : Math.pow(x, oneMinusExponent);
+    }
+
+    private int tailRank(double u) {
+      double t = tailFrom + u * (tailTo - tailFrom);
+      double x = oneMinusExponent == 0 ? Math.exp(t) : Math.pow(t, 1 / oneMinusExponent);
+      // x is within [rank + 0.5, rank + 1.5) of the zero based rank
+      return (int) Math.max(HEAD, Math.min(size - 1, (long) (x - 0.5)));
+    }
+  }
+
+  /**
+   * The index is the insertion order, so the hottest rank is the last record
+   */
+  private static final class Latest extends KeyDistribution {
+    private final KeyDistribution age;
+
+    private Latest(KeyDistribution age) {
+      super(age.size);
+      this.age = age;
+    }
+
+    @Override
+    public int next(Random random) {
+      return size - 1 - age.next(random);
+    }
+  }
+
+  /**
+   * Spreads the ranks of another distribution over the indexes: {@code rank * stride + offset} modulo the size with a stride coprime to
+   * it, so neighbouring ranks are ~0.6 of the table apart
+   */
+  private static final class Permuted extends KeyDistribution {
+    private final KeyDistribution ranks;
+    private final long stride;
+    private final long offset;
+
+    private Permuted(KeyDistribution ranks, long seed) {
+      super(ranks.size);
+      this.ranks = ranks;
+      long candidate = (long) (size * 0.6180339887) | 1;
+      while (gcd(candidate, size) != 1) {
+        ++candidate;
+      }
+      this.stride = candidate;
+      this.offset = Math.floorMod(seed, size);
+    }
+
+    @Override
+    public int next(Random random) {
+      return (int) ((ranks.next(random) * stride + offset) % size);
+    }
+
+    private static long gcd(long a, long b) {
+      return b == 0 ? a : gcd(b, a % b);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Primitive multimap {@code long -> long} without boxing: open addressing with linear probing for the keys, the values of a key are a
+ * linked list in parallel arrays. Removed entries are reused, keys stay in the table once added (with an empty list).
+ *
+ * Iterate the values of a key via {@code for (int e = head(key); e != NONE; e = next(e)) value(e)}. Not thread-safe.
+ */
+public class LongMultiMap {
+  public static final int NONE = -1;
+  private static final int FREE_SLOT = -2;
+  private static final double MAX_LOAD = 0.6;
+
+  private long[] keys;
+  private int[] heads;
+  private int mask;
+  private int usedSlots;
+
+  private long[] values;
+  private int[] next;
+  private int entries;
+  private int freeEntries = NONE;
+  private int size;
+
+  public LongMultiMap(int expectedKeys) {
+    int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedKeys / MAX_LOAD)) - 1) << 1;
+    initSlots(capacity);
+    values = new long[Math.max(16, expectedKeys)];
+    next = new int[values.length];
+  }
+
+  public void put(long key, long value) {
+    if (usedSlots + 1 > keys.length * MAX_LOAD) {
+      resize(keys.length << 1);
+    }
+    int slot = slot(key);
+    if (heads[slot] == FREE_SLOT) {
+      keys[slot] = key;
+      heads[slot] = NONE;
+      ++usedSlots;
+    }
+    int entry = newEntry();
+    values[entry] = value;
+    next[entry] = heads[slot];
+    heads[slot] = entry;
+    ++size;
+  }
+
+  /**
+   * Removes one occurrence of the value from the key.
+   *
+   * @return Whether the value has been found
+   */
+  public boolean remove(long key, long value) {
+    int slot = slot(key);
+    if (heads[slot] == FREE_SLOT) {
+      return false;
+    }
+    int previous = NONE;
+    for (int e = heads[slot]; e != NONE; previous = e, e = next[e]) {
+      if (values[e] == value) {
+        if (previous == NONE) {
+          heads[slot] = next[e];
+        } else {
+          next[previous] = next[e];
+        }
+        next[e] = freeEntries;
+        freeEntries = e;
+        --size;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return The first entry of the key or {@link #NONE}
+   */
+  public int head(long key) {
+    int head = heads[slot(key)];
+    return head == FREE_SLOT ? NONE : head;
+  }
+
+  public int next(int entry) {
+    return next[entry];
+  }
+
+  public long value(int entry) {
+    return values[entry];
+  }
+
+  /**
+   * @return The number of values
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return The bytes of the arrays, i.e. the heap the map occupies
+   */
+  public long bytes() {
+    return (long) keys.length * (8 + 4) + (long) values.length * (8 + 4);
+  }
+
+  public void clear() {
+    initSlots(16);
+    entries = 0;
+    freeEntries = NONE;
+    size = 0;
+  }
+
+  private int slot(long key) {
+    int slot = (int) mix(key) & mask;
+    while (heads[slot] != FREE_SLOT && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int newEntry() {
+    if (freeEntries != NONE) {
+      int entry = freeEntries;
+      freeEntries = next[entry];
+      return entry;
+    }
+    if (entries == values.length) {
+      int capacity = values.length + (values.length >> 1);
+      values = Arrays.copyOf(values, capacity);
+      next = Arrays.copyOf(next, capacity);
+    }
+    return entries++;
+  }
+
+  private void initSlots(int capacity) {
+    keys = new long[capacity];
+    heads = new int[capacity];
+    Arrays.fill(heads, FREE_SLOT);
+    mask = capacity - 1;
+    usedSlots = 0;
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldHeads = heads;
+    initSlots(capacity);
+    for (int i = 0; i < oldKeys.length; ++i) {
+      if (oldHeads[i] != FREE_SLOT) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        heads[slot] = oldHeads[i];
+        ++usedSlots;
+      }
+    }
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+    z = (z ^ (z >>> 33)) * 0xc4ceb93fe1a85ec5L;
+    return z ^ (z >>> 33);
+  }
+}
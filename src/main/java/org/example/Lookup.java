@@ -1,6 +1,8 @@
 package org.example;
 
 import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import org.bson.Document;
 
@@ -33,4 +35,18 @@ public class Lookup {
 
     return document;
   }
+
+  public static Lookup fromMongoDocument(Document document) {
+    return new Lookup(
+      document.getString("_id"),
+      document.getLong("archivalId"),
+      toInstant(document.getDate("archivedAt")),
+      toInstant(document.getDate("createdAt")),
+      toInstant(document.getDate("timestamp")),
+      new HashMap<>(document.get("identifiers", Document.class)));
+  }
+
+  private static Instant toInstant(Date date) {
+    return date == null ? null : date.toInstant();
+  }
 }
@@ -0,0 +1,120 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary representation of a {@link Lookup}, used by the {@link DatasetSnapshot} and the {@link OffHeapLookupStore}.
+ *
+ * Layout (big endian): {@code id (short length + ASCII), archivalId, archivedAt, createdAt, timestamp, checkId, profileIds, userIds}.
+ * Instants are epoch-micros ({@link Long#MIN_VALUE} for {@code null}), the multi-valued identifiers are a byte count ({@code -1} if
+ * absent) followed by the ints.
+ */
+public final class LookupCodec {
+  public static final int MAX_BYTES = 2 + Short.MAX_VALUE + 5 * 8 + 2 * (1 + 127 * 4);
+  private static final long NULL_INSTANT = Long.MIN_VALUE;
+
+  private LookupCodec() {
+  }
+
+  /**
+   * Writes the record at the position of the buffer and advances it.
+   */
+  public static void write(ByteBuffer out, Lookup lookup) {
+    byte[] id = lookup.id.getBytes(StandardCharsets.US_ASCII);
+    out.putShort((short) id.length);
+    out.put(id);
+    out.putLong(lookup.archivalId);
+    out.putLong(toMicros(lookup.archivedAt));
+    out.putLong(toMicros(lookup.createdAt));
+    out.putLong(toMicros(lookup.timestamp));
+    for (String name : lookup.identifiers.keySet()) {
+      if (!name.equals("CHECK_ID") && !name.equals("PROFILE_ID") && !name.equals("USER_ID")) {
+        throw new IllegalArgumentException("Unknown identifier " + name + " of " + lookup.id);
+      }
+    }
+    out.putLong((Long) lookup.identifiers.get("CHECK_ID"));
+    writeInts(out, (List<?>) lookup.identifiers.get("PROFILE_ID"));
+    writeInts(out, (List<?>) lookup.identifiers.get("USER_ID"));
+  }
+
+  /**
+   * Reads the record at the position of the buffer and advances it.
+   */
+  public static Lookup read(ByteBuffer in) {
+    var id = new byte[in.getShort()];
+    in.get(id);
+    long archivalId = in.getLong();
+    Instant archivedAt = fromMicros(in.getLong());
+    Instant createdAt = fromMicros(in.getLong());
+    Instant timestamp = fromMicros(in.getLong());
+    var identifiers = new HashMap<String, Object>(4);
+    identifiers.put("CHECK_ID", in.getLong());
+    readInts(in, "PROFILE_ID", identifiers);
+    readInts(in, "USER_ID", identifiers);
+    return new Lookup(new String(id, StandardCharsets.US_ASCII), archivalId, archivedAt, createdAt, timestamp, identifiers);
+  }
+
+  /**
+   * Reads only the check-id of the record at the position of the buffer and advances it to the next record.
+   */
+  public static long readCheckId(ByteBuffer in) {
+    int idLength = in.getShort();
+    in.position(in.position() + idLength + 4 * 8);
+    long checkId = in.getLong();
+    skipInts(in);
+    skipInts(in);
+    return checkId;
+  }
+
+  /**
+   * Overwrites {@code archivedAt} of the record starting at the absolute index, the size of the record doesn't change.
+   */
+  public static void writeArchivedAt(ByteBuffer buffer, int index, Instant archivedAt) {
+    buffer.putLong(index + 2 + buffer.getShort(index) + 8, toMicros(archivedAt));
+  }
+
+  private static void writeInts(ByteBuffer out, List<?> values) {
+    if (values == null) {
+      out.put((byte) -1);
+      return;
+    }
+    out.put((byte) values.size());
+    for (Object value : values) {
+      out.putInt((Integer) value);
+    }
+  }
+
+  private static void readInts(ByteBuffer in, String name, Map<String, Object> identifiers) {
+    int count = in.get();
+    if (count < 0) {
+      return;
+    }
+    var values = new Integer[count];
+    for (int i = 0; i < count; ++i) {
+      values[i] = in.getInt();
+    }
+    identifiers.put(name, Arrays.asList(values));
+  }
+
+  private static void skipInts(ByteBuffer in) {
+    int count = in.get();
+    if (count > 0) {
+      in.position(in.position() + count * 4);
+    }
+  }
+
+  static long toMicros(Instant instant) {
+    return instant == null ? NULL_INSTANT : instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+  }
+
+  static Instant fromMicros(long micros) {
+    return micros == NULL_INSTANT ? null : Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+      Math.floorMod(micros, 1_000_000) * 1_000L);
+  }
+}
@@ -0,0 +1,378 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process store of {@link Lookup}s: the records are appended off-heap ({@link LookupCodec} into memory-mapped chunks of a temporary
+ * file, so neither the heap nor {@code -XX:MaxDirectMemorySize} limit it) and found via primitive hash indexes from the id, every
+ * identifier and the minute of {@code createdAt} to the offset of the record. Serves as the lower bound of what a lookup can cost
+ * without network, driver and query planning, and as prototype of an in-process cache tier.
+ *
+ * Thread-safe: reads share a read lock, writes take the write lock. Space of deleted records isn't reused until {@link #clear()}.
+ */
+public class OffHeapLookupStore implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(OffHeapLookupStore.class);
+  private static final int CHUNK_BITS = 26;
+  private static final int CHUNK_BYTES = 1 << CHUNK_BITS;
+  private static final long MINUTE_MICROS = 60_000_000L;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final List<MappedByteBuffer> chunks = new ArrayList<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final LongMultiMap byId;
+  private final LongMultiMap byCheckId;
+  private final LongMultiMap byProfileId;
+  private final LongMultiMap byUserId;
+  private final LongMultiMap byCreatedAtMinute;
+  private long end;
+  private int size;
+
+  private OffHeapLookupStore(Path file, FileChannel channel, int expectedRecords) {
+    this.file = file;
+    this.channel = channel;
+    this.byId = new LongMultiMap(expectedRecords);
+    this.byCheckId = new LongMultiMap(expectedRecords);
+    this.byProfileId = new LongMultiMap(expectedRecords);
+    this.byUserId = new LongMultiMap(expectedRecords);
+    this.byCreatedAtMinute = new LongMultiMap(expectedRecords);
+  }
+
+  /**
+   * @param expectedRecords Initial capacity of the indexes, they grow if needed
+   */
+  public static OffHeapLookupStore create(int expectedRecords) throws IOException {
+    Path file = Files.createTempFile("lookup-store", ".bin");
+    file.toFile().deleteOnExit();
+    var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    LOG.info("Off-heap store backed by {}", file);
+    return new OffHeapLookupStore(file, channel, expectedRecords);
+  }
+
+  /**
+   * @throws IllegalStateException If a record with the same id exists, nothing of the batch is inserted in that case
+   */
+  public void insert(List<Lookup> records) {
+    lock.writeLock().lock();
+    try {
+      for (Lookup lookup : records) {
+        if (offsetOf(lookup.id) != LongMultiMap.NONE) {
+          throw new IllegalStateException("Duplicate id " + lookup.id);
+        }
+      }
+      for (Lookup lookup : records) {
+        index(lookup, append(lookup));
+      }
+      size += records.size();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return Whether the record existed
+   */
+  public boolean delete(String id) {
+    lock.writeLock().lock();
+    try {
+      long offset = offsetOf(id);
+      if (offset == LongMultiMap.NONE) {
+        return false;
+      }
+      unindex(read(offset), offset);
+      --size;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return Whether the record exists
+   */
+  public boolean updateArchivedAt(String id, Instant archivedAt) {
+    lock.writeLock().lock();
+    try {
+      long offset = offsetOf(id);
+      if (offset == LongMultiMap.NONE) {
+        return false;
+      }
+      LookupCodec.writeArchivedAt(chunk(offset), position(offset), archivedAt);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return The record or {@code null}
+   */
+  public Lookup findByCheckId(long checkId) {
+    lock.readLock().lock();
+    try {
+      int entry = byCheckId.head(checkId);
+      return entry == LongMultiMap.NONE ? null : read(byCheckId.value(entry));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param identifier {@code PROFILE_ID} or {@code USER_ID}
+   * @param notArchivedOnly Whether records with {@code archivedAt} should be skipped
+   */
+  public List<Lookup> findByIdentifier(String identifier, int value, boolean notArchivedOnly) {
+    LongMultiMap index = switch (identifier) {
+      case "PROFILE_ID" -> byProfileId;
+      case "USER_ID" -> byUserId;
+      default -> throw new IllegalArgumentException("No index for " + identifier);
+    };
+    List<Lookup> result = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      for (int e = index.head(value); e != LongMultiMap.NONE; e = index.next(e)) {
+        Lookup lookup = read(index.value(e));
+        if (!notArchivedOnly || lookup.archivedAt == null) {
+          result.add(lookup);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return result;
+  }
+
+  /**
+   * @return The first {@code limit} records with {@code from <= createdAt < to}, ordered by {@code createdAt}. Only the minutes needed
+   *   to fill the limit are read.
+   */
+  public List<Lookup> findCreatedBetween(Instant from, Instant to, int limit) {
+    long fromMicros = LookupCodec.toMicros(from);
+    long toMicros = LookupCodec.toMicros(to);
+    List<Lookup> result = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      for (long minute = Math.floorDiv(fromMicros, MINUTE_MICROS); minute <= Math.floorDiv(toMicros - 1, MINUTE_MICROS)
+        && result.size() < limit; ++minute) {
+        List<Lookup> bucket = new ArrayList<>();
+        for (int e = byCreatedAtMinute.head(minute); e != LongMultiMap.NONE; e = byCreatedAtMinute.next(e)) {
+          Lookup lookup = read(byCreatedAtMinute.value(e));
+          long createdAt = LookupCodec.toMicros(lookup.createdAt);
+          if (createdAt >= fromMicros && createdAt < toMicros) {
+            bucket.add(lookup);
+          }
+        }
+        bucket.sort(Comparator.comparing(l -> l.createdAt));
+        result.addAll(bucket.subList(0, Math.min(bucket.size(), limit - result.size())));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return result;
+  }
+
+  /**
+   * Hands the records to the consumer in the order they were appended, like a table scan, skipping the deleted ones. The consumer is
+   * called under the read lock.
+   *
+   * @param from Offset to start at, 0 for the first record or the result of the previous call
+   * @param limit Maximum number of records handed over
+   * @return The offset to continue at, {@code -1} once all records have been handed over
+   */
+  public long scan(long from, int limit, Consumer<Lookup> consumer) {
+    lock.readLock().lock();
+    try {
+      long offset = from;
+      int handed = 0;
+      while (handed < limit) {
+        if (CHUNK_BYTES - position(offset) < LookupCodec.MAX_BYTES) {
+          // like append(), the record is in the next chunk
+          offset = ((offset >>> CHUNK_BITS) + 1) << CHUNK_BITS;
+        }
+        if (offset >= end) {
+          return -1;
+        }
+        ByteBuffer in = chunk(offset).duplicate().position(position(offset));
+        Lookup lookup = LookupCodec.read(in);
+        if (isIndexed(lookup.id, offset)) {
+          consumer.accept(lookup);
+          ++handed;
+        }
+        offset += in.position() - position(offset);
+      }
+      return offset;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The bytes appended to the mapped chunks, including deleted records
+   */
+  public long recordBytes() {
+    lock.readLock().lock();
+    try {
+      return end;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The heap occupied by all indexes
+   */
+  public long indexBytes() {
+    lock.readLock().lock();
+    try {
+      return byId.bytes() + byCheckId.bytes() + byProfileId.bytes() + byUserId.bytes() + byCreatedAtMinute.bytes();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Removes all records, the mapped chunks are kept for the next inserts.
+   */
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      byId.clear();
+      byCheckId.clear();
+      byProfileId.clear();
+      byUserId.clear();
+      byCreatedAtMinute.clear();
+      end = 0;
+      size = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * @return The offset of the record or {@link LongMultiMap#NONE}
+   */
+  private long offsetOf(String id) {
+    for (int e = byId.head(hash(id)); e != LongMultiMap.NONE; e = byId.next(e)) {
+      long offset = byId.value(e);
+      if (read(offset).id.equals(id)) {
+        return offset;
+      }
+    }
+    return LongMultiMap.NONE;
+  }
+
+  /**
+   * @return Whether the record at the offset is the current one of the id, i.e. not deleted
+   */
+  private boolean isIndexed(String id, long offset) {
+    for (int e = byId.head(hash(id)); e != LongMultiMap.NONE; e = byId.next(e)) {
+      if (byId.value(e) == offset) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private long append(Lookup lookup) {
+    if (CHUNK_BYTES - position(end) < LookupCodec.MAX_BYTES) {
+      // the record might not fit, continue with the next chunk
+      end = ((end >>> CHUNK_BITS) + 1) << CHUNK_BITS;
+    }
+    int chunk = (int) (end >>> CHUNK_BITS);
+    if (chunk == chunks.size()) {
+      map(chunk);
+    }
+    long offset = end;
+    ByteBuffer out = chunk(offset).duplicate().position(position(offset));
+    LookupCodec.write(out, lookup);
+    end = offset + out.position() - position(offset);
+    return offset;
+  }
+
+  private void map(int chunk) {
+    try {
+      chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunk << CHUNK_BITS, CHUNK_BYTES));
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not map " + file, e);
+    }
+  }
+
+  private Lookup read(long offset) {
+    return LookupCodec.read(chunk(offset).duplicate().position(position(offset)));
+  }
+
+  private ByteBuffer chunk(long offset) {
+    return chunks.get((int) (offset >>> CHUNK_BITS));
+  }
+
+  private static int position(long offset) {
+    return (int) (offset & (CHUNK_BYTES - 1));
+  }
+
+  private void index(Lookup lookup, long offset) {
+    byId.put(hash(lookup.id), offset);
+    byCheckId.put((Long) lookup.identifiers.get("CHECK_ID"), offset);
+    forEachInt(lookup, "PROFILE_ID", value -> byProfileId.put(value, offset));
+    forEachInt(lookup, "USER_ID", value -> byUserId.put(value, offset));
+    byCreatedAtMinute.put(Math.floorDiv(LookupCodec.toMicros(lookup.createdAt), MINUTE_MICROS), offset);
+  }
+
+  private void unindex(Lookup lookup, long offset) {
+    byId.remove(hash(lookup.id), offset);
+    byCheckId.remove((Long) lookup.identifiers.get("CHECK_ID"), offset);
+    forEachInt(lookup, "PROFILE_ID", value -> byProfileId.remove(value, offset));
+    forEachInt(lookup, "USER_ID", value -> byUserId.remove(value, offset));
+    byCreatedAtMinute.remove(Math.floorDiv(LookupCodec.toMicros(lookup.createdAt), MINUTE_MICROS), offset);
+  }
+
+  private static void forEachInt(Lookup lookup, String identifier, IntConsumer action) {
+    var values = (List<?>) lookup.identifiers.get(identifier);
+    if (values != null) {
+      for (Object value : values) {
+        action.accept((Integer) value);
+      }
+    }
+  }
+
+  /**
+   * 64 bit FNV-1a, {@link String#hashCode()} would collide too often for millions of ids
+   */
+  private static long hash(String id) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < id.length(); ++i) {
+      hash = (hash ^ id.charAt(i)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+}